@@ -0,0 +1,438 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.BibliotecaApplication;
+import com.example.demo.consultas.HistogramaLatencia;
+import com.example.demo.models.Livro;
+import com.example.demo.models.Usuario;
+import com.example.demo.repositories.LivroRepository;
+import com.example.demo.repositories.UsuarioRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador de carga HTTP ponta a ponta: sobe BibliotecaApplication no mesmo processo, com H2 em memória,
+ * cadastra livros e usuários e dispara uma mistura de leituras do catálogo, criações e atualizações de
+ * livros e empréstimos contra a API REST. Não é JMH: mede vazão e latência de cauda do servidor real
+ * (Tomcat, MVC, Jackson, serviços, JPA), o que os testes com MockMvc não cobrem.
+ *
+ * Modos:
+ *   fechado: clientes threads, cada uma envia o próximo pedido só depois da resposta do anterior.
+ *            Com taxa > 0 cada cliente segue o ritmo taxa/clientes; atrasos são corrigidos pelo
+ *            intervalo esperado (HistogramaLatencia.registrar com intervalo). Sem taxa, só latência bruta.
+ *   aberto:  taxa pedidos por segundo em horários fixos, independentes das respostas; a latência
+ *            corrigida conta do horário previsto, a bruta do envio efetivo.
+ *
+ * Argumentos chave=valor (todos opcionais): modo=fechado|aberto clientes=8 taxa=0 duracao=30s
+ * aquecimento=10s mistura=leitura:70,criacao:10,atualizacao:10,emprestimo:10 livros=2000 usuarios=500
+ */
+public final class CargaHttpBenchmark {
+
+    // 7 bits: percentis com erro relativo abaixo de 1%
+    private static final int PRECISAO = 7;
+    // limite de pedidos em voo no modo aberto; acima dele o envio atrasa e o atraso entra na latência corrigida
+    private static final int EM_VOO_MAXIMO = 2_000;
+    private static final int LOTE_CADASTRO = 500;
+    private static final double[] PERCENTIS = {50, 90, 99, 99.9, 99.99};
+
+    enum Operacao { LEITURA, CRIACAO, ATUALIZACAO, EMPRESTIMO }
+
+    private record Configuracao(boolean aberto, int clientes, double taxa, Duration duracao, Duration aquecimento,
+                                Map<Operacao, Integer> mistura, int livros, int usuarios) {
+    }
+
+    private static final class Resultado {
+        final HistogramaLatencia corrigido = new HistogramaLatencia(PRECISAO);
+        final HistogramaLatencia bruto = new HistogramaLatencia(PRECISAO);
+        final LongAdder pedidos = new LongAdder();
+        final LongAdder sucesso = new LongAdder();
+        final LongAdder erroCliente = new LongAdder();
+        final LongAdder erroServidor = new LongAdder();
+        final LongAdder falhas = new LongAdder();
+
+        void registrar(long corrigidoNanos, long brutoNanos, long intervaloNanos, HttpResponse<?> resposta, Throwable erro) {
+            corrigido.registrar(corrigidoNanos, intervaloNanos);
+            bruto.registrar(brutoNanos);
+            pedidos.increment();
+            if (erro != null || resposta == null) {
+                falhas.increment();
+            } else if (resposta.statusCode() >= 500) {
+                erroServidor.increment();
+            } else if (resposta.statusCode() >= 400) {
+                erroCliente.increment();
+            } else {
+                sucesso.increment();
+            }
+        }
+    }
+
+    private final Configuracao config;
+    private final Map<Operacao, Resultado> resultados = new EnumMap<>(Operacao.class);
+    private final Resultado total = new Resultado();
+    private final Operacao[] sorteio;
+    private final LongAccumulator atrasoEnvioMaximo = new LongAccumulator(Math::max, 0);
+
+    private HttpClient http;
+    private ObjectMapper json;
+    private String base;
+    private long[] idsLivros;
+    private long[] idsUsuarios;
+
+    private CargaHttpBenchmark(Configuracao config) {
+        this.config = config;
+        List<Operacao> roleta = new ArrayList<>();
+        config.mistura().forEach((operacao, peso) -> {
+            resultados.put(operacao, new Resultado());
+            for (int i = 0; i < peso; i++) {
+                roleta.add(operacao);
+            }
+        });
+        this.sorteio = roleta.toArray(Operacao[]::new);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Configuracao config = configuracao(args);
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(BibliotecaApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:carga;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.show-sql=false",
+                        "--biblioteca.snapshot.habilitado=false",
+                        // a carga mede o servidor, não o perfilador de SQL
+                        "--biblioteca.consultas.perfilador.habilitado=false",
+                        "--logging.level.root=WARN");
+        try {
+            new CargaHttpBenchmark(config).executar(contexto);
+        } finally {
+            contexto.close();
+        }
+    }
+
+    private void executar(ConfigurableApplicationContext contexto) throws Exception {
+        http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        json = contexto.getBean(ObjectMapper.class);
+        base = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port");
+        cadastrar(contexto);
+
+        System.out.printf("carga: modo %s, %s; %d s medidos depois de %d s de aquecimento%n",
+                config.aberto() ? "aberto" : "fechado", descricaoRitmo(),
+                config.duracao().toSeconds(), config.aquecimento().toSeconds());
+        StringBuilder mistura = new StringBuilder("mistura:");
+        config.mistura().forEach((operacao, peso) -> mistura.append(' ').append(nome(operacao)).append(':').append(peso));
+        System.out.println(mistura);
+
+        long inicio = System.nanoTime();
+        long marco = inicio + config.aquecimento().toNanos();
+        long fim = marco + config.duracao().toNanos();
+        if (config.aberto()) {
+            cargaAberta(inicio, marco, fim);
+        } else {
+            cargaFechada(inicio, marco, fim);
+        }
+        relatorio();
+    }
+
+    // livros pela API de lote (passa pelo índice de autores); usuários direto no repositório, que não tem API
+    private void cadastrar(ConfigurableApplicationContext contexto) throws IOException, InterruptedException {
+        for (int inicio = 0; inicio < config.livros(); inicio += LOTE_CADASTRO) {
+            List<Livro> lote = new ArrayList<>();
+            for (int i = inicio; i < Math.min(inicio + LOTE_CADASTRO, config.livros()); i++) {
+                lote.add(new Livro("Título " + i, "Autor " + (i % 200), 100 + i % 500));
+            }
+            HttpResponse<Void> resposta = http.send(HttpRequest.newBuilder(URI.create(base + "/api/livros/batch"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(lote)))
+                    .build(), HttpResponse.BodyHandlers.discarding());
+            if (resposta.statusCode() != 200) {
+                throw new IllegalStateException("cadastro de livros respondeu " + resposta.statusCode());
+            }
+        }
+        idsLivros = contexto.getBean(LivroRepository.class)
+                .findByIdGreaterThanOrderByIdAsc(0L, Limit.of(config.livros())).stream()
+                .mapToLong(Livro::getId).toArray();
+
+        UsuarioRepository usuarioRepository = contexto.getBean(UsuarioRepository.class);
+        List<Usuario> usuarios = new ArrayList<>();
+        for (int i = 0; i < config.usuarios(); i++) {
+            usuarios.add(new Usuario("Leitor " + i, "leitor" + i + "@carga.local"));
+        }
+        idsUsuarios = usuarioRepository.saveAll(usuarios).stream().mapToLong(Usuario::getId).toArray();
+        if (idsLivros.length == 0 || idsUsuarios.length == 0) {
+            throw new IllegalStateException("cadastro vazio: livros e usuarios devem ser maiores que zero");
+        }
+        System.out.printf("cadastrados %d livros e %d usuários%n", idsLivros.length, idsUsuarios.length);
+    }
+
+    // ---------- Modos ----------
+
+    private void cargaFechada(long inicio, long marco, long fim) throws InterruptedException {
+        long intervalo = config.taxa() > 0 ? (long) (1e9 * config.clientes() / config.taxa()) : 0;
+        List<Thread> clientes = new ArrayList<>();
+        for (int c = 0; c < config.clientes(); c++) {
+            // clientes defasados dentro do intervalo, para não saírem todos juntos
+            long primeiro = inicio + (intervalo * c) / config.clientes();
+            Thread cliente = new Thread(() -> {
+                long proximo = primeiro;
+                while (true) {
+                    if (intervalo > 0) {
+                        esperarAte(proximo);
+                    }
+                    long envio = System.nanoTime();
+                    if (envio >= fim) {
+                        return;
+                    }
+                    Operacao operacao = sortear();
+                    HttpResponse<Void> resposta = null;
+                    Throwable erro = null;
+                    try {
+                        resposta = http.send(pedido(operacao), HttpResponse.BodyHandlers.discarding());
+                    } catch (IOException e) {
+                        erro = e;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    long latencia = System.nanoTime() - envio;
+                    if (envio >= marco) {
+                        registrar(operacao, latencia, latencia, intervalo, resposta, erro);
+                    }
+                    // atrasado: os horários perdidos não são recuperados em rajada, a correção os conta
+                    proximo = Math.max(proximo + intervalo, System.nanoTime());
+                }
+            }, "carga-cliente-" + c);
+            clientes.add(cliente);
+            cliente.start();
+        }
+        for (Thread cliente : clientes) {
+            cliente.join();
+        }
+    }
+
+    private void cargaAberta(long inicio, long marco, long fim) throws InterruptedException {
+        Semaphore emVoo = new Semaphore(EM_VOO_MAXIMO);
+        for (long i = 0; ; i++) {
+            long previsto = inicio + (long) (i * 1e9 / config.taxa());
+            if (previsto >= fim) {
+                break;
+            }
+            esperarAte(previsto);
+            emVoo.acquire();
+            long envio = System.nanoTime();
+            if (previsto >= marco) {
+                atrasoEnvioMaximo.accumulate(envio - previsto);
+            }
+            Operacao operacao = sortear();
+            http.sendAsync(pedido(operacao), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((resposta, erro) -> {
+                        long agora = System.nanoTime();
+                        if (previsto >= marco) {
+                            // o horário previsto já absorve a omissão coordenada: nada de intervalo extra
+                            registrar(operacao, agora - previsto, agora - envio, 0, resposta, erro);
+                        }
+                        emVoo.release();
+                    });
+        }
+        if (!emVoo.tryAcquire(EM_VOO_MAXIMO, 1, TimeUnit.MINUTES)) {
+            System.out.println("aviso: pedidos ainda em voo depois de 1 min não entram no relatório");
+        }
+    }
+
+    private void registrar(Operacao operacao, long corrigido, long bruto, long intervalo,
+                           HttpResponse<?> resposta, Throwable erro) {
+        resultados.get(operacao).registrar(corrigido, bruto, intervalo, resposta, erro);
+        total.registrar(corrigido, bruto, intervalo, resposta, erro);
+    }
+
+    private static void esperarAte(long nanos) {
+        long restante;
+        while ((restante = nanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(restante);
+        }
+    }
+
+    // ---------- Pedidos ----------
+
+    private Operacao sortear() {
+        return sorteio[ThreadLocalRandom.current().nextInt(sorteio.length)];
+    }
+
+    private HttpRequest pedido(Operacao operacao) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        long livro = idsLivros[rnd.nextInt(idsLivros.length)];
+        return switch (operacao) {
+            case LEITURA -> {
+                int tipo = rnd.nextInt(10);
+                String caminho = tipo < 6 ? "/api/livros/" + livro
+                        : tipo < 8 ? "/api/livros/pagina?tamanho=20"
+                        : "/api/livros/autor?autor=Autor+" + rnd.nextInt(200);
+                yield HttpRequest.newBuilder(URI.create(base + caminho)).timeout(Duration.ofSeconds(30)).GET().build();
+            }
+            case CRIACAO -> comCorpo("/api/livros", "POST", livroAleatorio(rnd));
+            case ATUALIZACAO -> comCorpo("/api/livros/" + livro, "PUT", livroAleatorio(rnd));
+            case EMPRESTIMO -> {
+                // com devolução: sem ela o limite de 5 abertos por usuário vira uma sequência de 400
+                Map<String, Object> emprestimo = new HashMap<>();
+                emprestimo.put("usuario", Map.of("id", idsUsuarios[rnd.nextInt(idsUsuarios.length)]));
+                emprestimo.put("livro", Map.of("id", livro));
+                emprestimo.put("dataEmprestimo", LocalDate.now().toString());
+                emprestimo.put("dataDevolucao", LocalDate.now().plusDays(14).toString());
+                yield comCorpo("/api/emprestimos", "POST", emprestimo);
+            }
+        };
+    }
+
+    private static Livro livroAleatorio(ThreadLocalRandom rnd) {
+        return new Livro("Carga " + rnd.nextInt(1_000_000), "Autor " + rnd.nextInt(200), 50 + rnd.nextInt(900));
+    }
+
+    private HttpRequest comCorpo(String caminho, String metodo, Object corpo) {
+        try {
+            return HttpRequest.newBuilder(URI.create(base + caminho))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .method(metodo, HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(corpo)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ---------- Relatório ----------
+
+    private void relatorio() {
+        double segundos = config.duracao().toNanos() / 1e9;
+        System.out.println();
+        System.out.printf("%-12s %9s %9s %9s %7s %7s %7s%n", "operação", "pedidos", "req/s", "2xx/3xx", "4xx", "5xx", "falhas");
+        resultados.forEach((operacao, r) -> linhaContagem(nome(operacao), r, segundos));
+        linhaContagem("total", total, segundos);
+
+        boolean corrige = config.aberto() || config.taxa() > 0;
+        System.out.println();
+        StringBuilder cabecalho = new StringBuilder(String.format("%-24s", "latência (ms)"));
+        for (double p : PERCENTIS) {
+            cabecalho.append(String.format(" %8s", "p" + (p == (long) p ? String.valueOf((long) p) : String.valueOf(p))));
+        }
+        System.out.println(cabecalho.append(String.format(" %8s %8s", "max", "média")));
+        resultados.forEach((operacao, r) -> linhasLatencia(nome(operacao), r, corrige));
+        linhasLatencia("total", total, corrige);
+
+        if (!corrige) {
+            System.out.println("sem taxa alvo não há intervalo esperado: só a latência bruta (sem correção de omissão coordenada)");
+        }
+        if (config.aberto() && atrasoEnvioMaximo.get() > TimeUnit.MILLISECONDS.toNanos(10)) {
+            System.out.printf("aviso: o gerador chegou a enviar %.1f ms depois do previsto (latência corrigida inclui o atraso)%n",
+                    atrasoEnvioMaximo.get() / 1e6);
+        }
+    }
+
+    private static void linhaContagem(String nome, Resultado r, double segundos) {
+        System.out.printf("%-12s %9d %9.1f %9d %7d %7d %7d%n", nome, r.pedidos.sum(), r.pedidos.sum() / segundos,
+                r.sucesso.sum(), r.erroCliente.sum(), r.erroServidor.sum(), r.falhas.sum());
+    }
+
+    private static void linhasLatencia(String nome, Resultado r, boolean corrige) {
+        if (corrige) {
+            linhaLatencia(nome + " corrigida", r.corrigido);
+        }
+        linhaLatencia(nome + " bruta", r.bruto);
+    }
+
+    private static void linhaLatencia(String nome, HistogramaLatencia h) {
+        StringBuilder linha = new StringBuilder(String.format("%-24s", nome));
+        for (double p : PERCENTIS) {
+            linha.append(String.format(" %8.2f", h.percentilMicros(p) / 1000.0));
+        }
+        double media = h.quantidade() == 0 ? 0 : h.somaMicros() / 1000.0 / h.quantidade();
+        System.out.println(linha.append(String.format(" %8.2f %8.2f", h.maximoMicros() / 1000.0, media)));
+    }
+
+    private static String nome(Operacao operacao) {
+        return operacao.name().toLowerCase();
+    }
+
+    private String descricaoRitmo() {
+        if (config.aberto()) {
+            return String.format("%.0f req/s", config.taxa());
+        }
+        return config.clientes() + " clientes, " + (config.taxa() > 0 ? String.format("%.0f req/s no total", config.taxa()) : "sem taxa alvo");
+    }
+
+    // ---------- Argumentos ----------
+
+    private static Configuracao configuracao(String[] args) {
+        Map<String, String> valores = new HashMap<>();
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual <= 0) {
+                throw new IllegalArgumentException("argumento sem chave=valor: " + arg);
+            }
+            valores.put(arg.substring(0, igual), arg.substring(igual + 1));
+        }
+        String modo = valores.getOrDefault("modo", "fechado");
+        if (!modo.equals("fechado") && !modo.equals("aberto")) {
+            throw new IllegalArgumentException("modo deve ser fechado ou aberto: " + modo);
+        }
+        boolean aberto = modo.equals("aberto");
+        double taxa = Double.parseDouble(valores.getOrDefault("taxa", "0"));
+        if (aberto && taxa <= 0) {
+            throw new IllegalArgumentException("modo aberto precisa de taxa > 0 (pedidos por segundo)");
+        }
+        int clientes = Integer.parseInt(valores.getOrDefault("clientes", "8"));
+        if (clientes < 1) {
+            throw new IllegalArgumentException("clientes deve ser >= 1");
+        }
+        return new Configuracao(aberto, clientes, taxa,
+                DurationStyle.detectAndParse(valores.getOrDefault("duracao", "30s")),
+                DurationStyle.detectAndParse(valores.getOrDefault("aquecimento", "10s")),
+                mistura(valores.getOrDefault("mistura", "leitura:70,criacao:10,atualizacao:10,emprestimo:10")),
+                Integer.parseInt(valores.getOrDefault("livros", "2000")),
+                Integer.parseInt(valores.getOrDefault("usuarios", "500")));
+    }
+
+    private static Map<Operacao, Integer> mistura(String texto) {
+        Map<Operacao, Integer> mistura = new EnumMap<>(Operacao.class);
+        for (String parte : texto.split(",")) {
+            String[] par = parte.trim().split(":");
+            if (par.length != 2) {
+                throw new IllegalArgumentException("mistura espera operacao:peso, recebeu " + parte);
+            }
+            int peso = Integer.parseInt(par[1].trim());
+            if (peso < 0) {
+                throw new IllegalArgumentException("peso negativo na mistura: " + parte);
+            }
+            if (peso > 0) {
+                mistura.put(Operacao.valueOf(par[0].trim().toUpperCase()), peso);
+            }
+        }
+        if (mistura.isEmpty()) {
+            throw new IllegalArgumentException("mistura sem operações: " + texto);
+        }
+        return mistura;
+    }
+}
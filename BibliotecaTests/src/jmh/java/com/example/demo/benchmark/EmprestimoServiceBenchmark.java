@@ -0,0 +1,61 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.models.Emprestimo;
+import com.example.demo.models.Livro;
+import com.example.demo.models.Usuario;
+import com.example.demo.repositories.EmprestimoRepository;
+import com.example.demo.repositories.LivroRepository;
+import com.example.demo.repositories.UsuarioRepository;
+import com.example.demo.services.EmprestimoService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EmprestimoService.criar com repositórios em memória: mede validações, checagem do limite
+ * de empréstimos e a trava por usuário. Com @Threads > 1 mostra a disputa pela trava.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmprestimoServiceBenchmark {
+
+    private EmprestimoService emprestimoService;
+    private Usuario usuario;
+    private Livro livro;
+
+    @Setup
+    public void setup() {
+        Logs.silenciar();
+        usuario = new Usuario("Ana", "ana@email.com");
+        usuario.setId(1L);
+        livro = new Livro("Iracema", "José de Alencar", 180);
+        livro.setId(1L);
+
+        UsuarioRepository usuarios = RepositoriosFalsos.criar(UsuarioRepository.class, Map.of(
+                "findById", args -> Optional.of(usuario)));
+        LivroRepository livros = RepositoriosFalsos.criar(LivroRepository.class, Map.of(
+                "findById", args -> Optional.of(livro)));
+        EmprestimoRepository emprestimos = RepositoriosFalsos.criar(EmprestimoRepository.class, Map.of(
+                "countByUsuarioAndDataDevolucaoIsNull", args -> 0L,
+                "save", args -> args[0]));
+        emprestimoService = new EmprestimoService(emprestimos, usuarios, livros);
+    }
+
+    @Benchmark
+    public Emprestimo criar() {
+        return emprestimoService.criar(new Emprestimo(usuario, livro, LocalDate.now(), null));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Emprestimo criarConcorrenteMesmoUsuario() {
+        return emprestimoService.criar(new Emprestimo(usuario, livro, LocalDate.now(), null));
+    }
+}
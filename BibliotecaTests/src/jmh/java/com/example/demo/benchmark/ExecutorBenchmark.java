@@ -0,0 +1,125 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.BibliotecaApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Compara o executor padrão do Tomcat (threads de plataforma) com o modo threads virtuais.
+ * Sobe a aplicação duas vezes (mesmo banco de application.properties, porta aleatória) e
+ * dispara GET /api/livros/pagina com N clientes concorrentes, medindo vazão e p99.
+ *
+ * Não é JMH. Execução pelo perfil benchmark, com o PostgreSQL no ar:
+ *   mvn -Pbenchmark test-compile exec:exec@comparar-executores -Dexecutor.clientes=400 -Dexecutor.segundos=20
+ * Argumentos: clientes concorrentes (padrão 400) e segundos de medição (padrão 20).
+ */
+public class ExecutorBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int clientes = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        int segundos = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        Resultado padrao = medir("padrão", clientes, segundos,
+                "--spring.threads.virtual.enabled=false", "--server.tomcat.threads.max=200");
+        Resultado virtuais = medir("virtual", clientes, segundos,
+                "--spring.profiles.active=virtual");
+
+        System.out.println();
+        System.out.printf("%-8s %12s %10s %10s %8s%n", "modo", "req/s", "p50 (ms)", "p99 (ms)", "erros");
+        for (Resultado r : List.of(padrao, virtuais)) {
+            System.out.printf("%-8s %12.1f %10.2f %10.2f %8d%n", r.modo, r.vazao, r.p50Ms, r.p99Ms, r.erros);
+        }
+    }
+
+    private record Resultado(String modo, double vazao, double p50Ms, double p99Ms, long erros) {
+    }
+
+    private static Resultado medir(String modo, int clientes, int segundos, String... propriedades) throws Exception {
+        List<String> argumentos = new ArrayList<>(Arrays.asList(propriedades));
+        argumentos.add("--server.port=0");
+        argumentos.add("--spring.jpa.show-sql=false");
+
+        try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(BibliotecaApplication.class)
+                .run(argumentos.toArray(String[]::new))) {
+            int porta = ((WebServerApplicationContext) ctx).getWebServer().getPort();
+            URI alvo = URI.create("http://localhost:" + porta + "/api/livros/pagina?tamanho=20");
+            HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+            // aquecimento: JIT e pool de conexões
+            executar(modo, http, alvo, clientes, Duration.ofSeconds(5));
+            return executar(modo, http, alvo, clientes, Duration.ofSeconds(segundos));
+        }
+    }
+
+    private static Resultado executar(String modo, HttpClient http, URI alvo, int clientes, Duration duracao) throws Exception {
+        HttpRequest requisicao = HttpRequest.newBuilder(alvo).timeout(Duration.ofSeconds(30)).GET().build();
+        AtomicBoolean rodando = new AtomicBoolean(true);
+        List<Future<long[]>> futuros = new ArrayList<>(clientes);
+
+        long inicio = System.nanoTime();
+        try (ExecutorService clientesVirtuais = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clientes; i++) {
+                futuros.add(clientesVirtuais.submit(() -> {
+                    long[] latencias = new long[1024];
+                    int n = 0;
+                    long erros = 0;
+                    while (rodando.get()) {
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<Void> resposta = http.send(requisicao, HttpResponse.BodyHandlers.discarding());
+                            if (resposta.statusCode() != 200) erros++;
+                        } catch (Exception e) {
+                            erros++;
+                        }
+                        if (n == latencias.length) latencias = Arrays.copyOf(latencias, n * 2);
+                        latencias[n++] = System.nanoTime() - t0;
+                    }
+                    long[] resultado = Arrays.copyOf(latencias, n + 1);
+                    resultado[n] = erros; // última posição carrega o total de erros
+                    return resultado;
+                }));
+            }
+            Thread.sleep(duracao.toMillis());
+            rodando.set(false);
+        }
+        double decorrido = (System.nanoTime() - inicio) / 1e9;
+
+        long erros = 0;
+        List<long[]> porCliente = new ArrayList<>(clientes);
+        int total = 0;
+        for (Future<long[]> f : futuros) {
+            long[] r = f.get();
+            erros += r[r.length - 1];
+            porCliente.add(r);
+            total += r.length - 1;
+        }
+        long[] todas = new long[total];
+        int pos = 0;
+        for (long[] r : porCliente) {
+            System.arraycopy(r, 0, todas, pos, r.length - 1);
+            pos += r.length - 1;
+        }
+        Arrays.sort(todas);
+        return new Resultado(modo, total / decorrido, percentil(todas, 0.50), percentil(todas, 0.99), erros);
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) return 0;
+        int i = (int) Math.ceil(p * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, i)] / 1e6;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.models.Livro;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON x CBOR x Smile para o corpo de GET /api/livros com 10k livros: tempo de codificação e
+ * decodificação. O tamanho do payload de cada formato é impresso no setup ("payload ... bytes").
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormatosBinariosBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String formato;
+
+    @Param({"10000"})
+    public int quantidade;
+
+    private static final TypeReference<List<Livro>> LISTA_LIVROS = new TypeReference<>() { };
+
+    private ObjectWriter escritor;
+    private ObjectReader leitor;
+    private List<Livro> livros;
+    private byte[] payload;
+
+    @Setup
+    public void setup() throws Exception {
+        ObjectMapper mapper = switch (formato) {
+            case "cbor" -> new CBORMapper();
+            case "smile" -> new SmileMapper();
+            default -> new ObjectMapper();
+        };
+        mapper.findAndRegisterModules(); // Instant de atualizadoEm, como no mapper do Spring Boot
+        escritor = mapper.writerFor(LISTA_LIVROS);
+        leitor = mapper.readerFor(LISTA_LIVROS);
+        livros = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            Livro livro = new Livro("Título do livro " + i, "Autor " + (i % 500), 100 + i % 900);
+            livro.setId((long) i + 1);
+            livro.setVersao((long) i % 3);
+            livros.add(livro);
+        }
+        payload = escritor.writeValueAsBytes(livros);
+        System.out.printf("payload %s (%d livros): %d bytes%n", formato, quantidade, payload.length);
+    }
+
+    @Benchmark
+    public byte[] codificar() throws Exception {
+        return escritor.writeValueAsBytes(livros);
+    }
+
+    @Benchmark
+    public List<Livro> decodificar() throws Exception {
+        return leitor.readValue(payload);
+    }
+}
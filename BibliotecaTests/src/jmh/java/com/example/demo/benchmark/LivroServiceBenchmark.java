@@ -0,0 +1,49 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.models.Livro;
+import com.example.demo.repositories.LivroRepository;
+import com.example.demo.services.LivroService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LivroService.criar: caminho válido (validação + save em memória) e inválido (exceção).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LivroServiceBenchmark {
+
+    private LivroService livroService;
+    private Livro valido;
+    private Livro invalido;
+
+    @Setup
+    public void setup() {
+        Logs.silenciar();
+        LivroRepository repositorio = RepositoriosFalsos.criar(LivroRepository.class, Map.of(
+                "save", args -> args[0]));
+        livroService = new LivroService(repositorio);
+        valido = new Livro("Dom Casmurro", "Machado de Assis", 256);
+        invalido = new Livro("", "Machado de Assis", 0);
+    }
+
+    @Benchmark
+    public Livro criarValido() {
+        return livroService.criar(valido);
+    }
+
+    @Benchmark
+    public Object criarInvalido() {
+        try {
+            return livroService.criar(invalido);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+}
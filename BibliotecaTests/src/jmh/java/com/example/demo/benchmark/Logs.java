@@ -0,0 +1,18 @@
+package com.example.demo.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Os serviços registram cada chamada; sem isto o benchmark mediria o console.
+ */
+final class Logs {
+
+    private Logs() {
+    }
+
+    static void silenciar() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.ERROR);
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.demo.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tempo até ficar pronto e memória residente (RSS) de BibliotecaApplication em cada modo de partida:
+ * padrão, perfil partida-rapida (lazy + JPA adiado), + AOT e + CDS. Não é JMH: cada medição é um
+ * processo novo, com o jar extraído pelo perfil Maven partida-rapida e um H2 em arquivo
+ * (migrado por uma primeira rodada, não medida).
+ *
+ * Pronto = primeira resposta 200 de /actuator/health/readiness, contado do início do processo.
+ * RSS = VmRSS de /proc logo depois de pronto (só Linux). As rodadas alternam os modos.
+ *
+ * Uso: PartidaBenchmark diretorio-partida nome-do-jar [rodadas, padrão 5]
+ */
+public final class PartidaBenchmark {
+
+    private static final Duration LIMITE_PARTIDA = Duration.ofMinutes(2);
+
+    private record Modo(String nome, List<String> jvm, List<String> aplicacao) {
+    }
+
+    private record Medicao(long prontoMs, long rssKb) {
+    }
+
+    private final Path diretorio;
+    private final String classpath;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+    private PartidaBenchmark(Path diretorio, Path jar) {
+        this.diretorio = diretorio;
+        // o H2 não vai no jar da aplicação (escopo test); entra depois dele, o que o CDS aceita
+        Path h2 = caminhoDoJar(org.h2.Driver.class);
+        this.classpath = jar + File.pathSeparator + h2;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("uso: PartidaBenchmark <diretorio-partida> <nome-do-jar> [rodadas]");
+            System.exit(2);
+        }
+        Path diretorio = Path.of(args[0]).toAbsolutePath();
+        Path jar = diretorio.resolve(args[1]);
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException(jar + " não existe; rode mvn -Ppartida-rapida -DskipTests package");
+        }
+        int rodadas = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        new PartidaBenchmark(diretorio, jar).executar(rodadas);
+    }
+
+    private void executar(int rodadas) throws Exception {
+        List<String> rapida = List.of("--spring.profiles.active=partida-rapida",
+                "--spring.jpa.properties.jakarta.persistence.database-product-name=H2");
+        List<Modo> modos = new ArrayList<>();
+        modos.add(new Modo("padrao", List.of(), List.of()));
+        modos.add(new Modo("lazy", List.of(), rapida));
+        modos.add(new Modo("lazy+aot", List.of("-Dspring.aot.enabled=true"), rapida));
+        Path cds = diretorio.resolve("biblioteca.jsa");
+        if (Files.isRegularFile(cds)) {
+            modos.add(new Modo("lazy+aot+cds", List.of("-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=" + cds), rapida));
+        } else {
+            System.out.println("sem " + cds + ": modo lazy+aot+cds ignorado");
+        }
+
+        Files.createDirectories(diretorio.resolve("logs"));
+        // aplica as migrações no banco em arquivo e aquece o cache de disco do SO
+        medir(modos.get(0), "preparo");
+
+        Map<Modo, List<Medicao>> medicoes = new LinkedHashMap<>();
+        for (int i = 1; i <= rodadas; i++) {
+            for (Modo modo : modos) {
+                Medicao m = medir(modo, String.valueOf(i));
+                System.out.printf("rodada %d %-14s pronto em %5d ms, RSS %s%n", i, modo.nome(), m.prontoMs(), mb(m.rssKb()));
+                medicoes.computeIfAbsent(modo, k -> new ArrayList<>()).add(m);
+            }
+        }
+
+        System.out.println();
+        System.out.printf("%-14s %12s %10s %10s %12s%n", "modo", "pronto p50", "min", "max", "RSS p50");
+        medicoes.forEach((modo, lista) -> {
+            long[] pronto = lista.stream().mapToLong(Medicao::prontoMs).sorted().toArray();
+            long[] rss = lista.stream().mapToLong(Medicao::rssKb).sorted().toArray();
+            System.out.printf("%-14s %9d ms %7d ms %7d ms %12s%n", modo.nome(),
+                    pronto[pronto.length / 2], pronto[0], pronto[pronto.length - 1], mb(rss[rss.length / 2]));
+        });
+    }
+
+    private Medicao medir(Modo modo, String rodada) throws Exception {
+        int porta = portaLivre();
+        List<String> comando = new ArrayList<>();
+        comando.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        comando.addAll(modo.jvm());
+        comando.add("-cp");
+        comando.add(classpath);
+        comando.add("com.example.demo.BibliotecaApplication");
+        comando.add("--server.port=" + porta);
+        comando.add("--spring.datasource.url=jdbc:h2:file:" + diretorio.resolve("banco/biblioteca")
+                // o H2 fecha só depois da aplicação, que ainda usa o banco no encerramento
+                + ";DB_CLOSE_ON_EXIT=FALSE");
+        comando.add("--spring.datasource.driver-class-name=org.h2.Driver");
+        comando.add("--spring.datasource.username=sa");
+        comando.add("--spring.datasource.password=");
+        comando.add("--logging.level.root=WARN");
+        comando.addAll(modo.aplicacao());
+
+        File log = diretorio.resolve("logs/" + modo.nome() + "-" + rodada + ".log").toFile();
+        long inicio = System.nanoTime();
+        Process processo = new ProcessBuilder(comando).redirectErrorStream(true).redirectOutput(log).start();
+        try {
+            long prontoMs = aguardarPronto(processo, porta, inicio, log);
+            return new Medicao(prontoMs, rssKb(processo.pid()));
+        } finally {
+            processo.destroy();
+            if (!processo.waitFor(30, TimeUnit.SECONDS)) {
+                processo.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private long aguardarPronto(Process processo, int porta, long inicio, File log) throws InterruptedException {
+        HttpRequest prontidao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(1))
+                .build();
+        long limite = inicio + LIMITE_PARTIDA.toNanos();
+        while (System.nanoTime() < limite) {
+            if (!processo.isAlive()) {
+                throw new IllegalStateException("aplicação saiu com código " + processo.exitValue() + "; ver " + log);
+            }
+            try {
+                if (http.send(prontidao, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+                }
+            } catch (IOException e) {
+                // porta ainda fechada
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("aplicação não ficou pronta em " + LIMITE_PARTIDA + "; ver " + log);
+    }
+
+    // VmRSS em kB; -1 fora do Linux
+    private static long rssKb(long pid) {
+        try {
+            for (String linha : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+                if (linha.startsWith("VmRSS:")) {
+                    return Long.parseLong(linha.replaceAll("\\D", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // sem /proc
+        }
+        return -1;
+    }
+
+    private static String mb(long kb) {
+        return kb < 0 ? "n/d" : String.format("%.1f MB", kb / 1024.0);
+    }
+
+    private static int portaLivre() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Path caminhoDoJar(Class<?> classe) {
+        try {
+            return Path.of(classe.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (Exception e) {
+            throw new IllegalStateException("jar de " + classe.getName() + " não encontrado", e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.BibliotecaApplication;
+import com.example.demo.models.Emprestimo;
+import com.example.demo.models.Livro;
+import com.example.demo.models.Usuario;
+import com.example.demo.repositories.EmprestimoRepository;
+import com.example.demo.repositories.LivroRepository;
+import com.example.demo.repositories.UsuarioRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas dos repositórios contra H2 em memória (contexto Spring sem web).
+ * Mede o caminho JPA + JDBC das buscas usadas pelos serviços.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositorioBenchmark {
+
+    private static final int LIVROS = 10_000;
+    private static final int USUARIOS = 1_000;
+
+    private ConfigurableApplicationContext contexto;
+    private LivroRepository livroRepository;
+    private UsuarioRepository usuarioRepository;
+    private EmprestimoRepository emprestimoRepository;
+
+    private long[] idsLivros;
+    private List<Usuario> usuarios;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        contexto = new SpringApplicationBuilder(BibliotecaApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        livroRepository = contexto.getBean(LivroRepository.class);
+        usuarioRepository = contexto.getBean(UsuarioRepository.class);
+        emprestimoRepository = contexto.getBean(EmprestimoRepository.class);
+
+        List<Livro> livros = new ArrayList<>(LIVROS);
+        for (int i = 0; i < LIVROS; i++) {
+            livros.add(new Livro("Título " + i, "Autor " + (i % 200), 100 + i % 500));
+        }
+        idsLivros = livroRepository.saveAll(livros).stream().mapToLong(Livro::getId).toArray();
+
+        usuarios = new ArrayList<>(USUARIOS);
+        for (int i = 0; i < USUARIOS; i++) {
+            usuarios.add(usuarioRepository.save(new Usuario("Usuário " + i, "usuario" + i + "@email.com")));
+        }
+        List<Emprestimo> emprestimos = new ArrayList<>();
+        for (int i = 0; i < USUARIOS * 3; i++) {
+            Livro livro = livroRepository.getReferenceById(idsLivros[i % idsLivros.length]);
+            emprestimos.add(new Emprestimo(usuarios.get(i % USUARIOS), livro, LocalDate.now(), null));
+        }
+        emprestimoRepository.saveAll(emprestimos);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Optional<Livro> livroFindById() {
+        return livroRepository.findById(idsLivros[ThreadLocalRandom.current().nextInt(idsLivros.length)]);
+    }
+
+    @Benchmark
+    public List<Livro> livroFindByAutor() {
+        return livroRepository.findByAutorOrderByTituloAsc("Autor " + ThreadLocalRandom.current().nextInt(200));
+    }
+
+    @Benchmark
+    public Optional<Usuario> usuarioFindByEmail() {
+        int i = ThreadLocalRandom.current().nextInt(USUARIOS);
+        return usuarioRepository.findByEmailNormalizado("usuario" + i + "@email.com");
+    }
+
+    @Benchmark
+    public long emprestimosAbertosCount() {
+        return emprestimoRepository.countByUsuarioAndDataDevolucaoIsNull(
+                usuarios.get(ThreadLocalRandom.current().nextInt(USUARIOS)));
+    }
+}
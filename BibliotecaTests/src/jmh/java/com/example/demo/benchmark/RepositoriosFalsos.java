@@ -0,0 +1,34 @@
+package com.example.demo.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Repositórios em memória para os benchmarks de serviço: cada método do repositório
+ * é respondido por uma função registrada pelo nome, sem Spring nem banco.
+ * Métodos não registrados lançam UnsupportedOperationException.
+ */
+final class RepositoriosFalsos {
+
+    private RepositoriosFalsos() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <R> R criar(Class<R> tipo, Map<String, Function<Object[], Object>> respostas) {
+        return (R) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, (proxy, metodo, args) -> {
+            Function<Object[], Object> resposta = respostas.get(metodo.getName());
+            if (resposta != null) {
+                return resposta.apply(args);
+            }
+            if (metodo.getDeclaringClass() == Object.class) {
+                return switch (metodo.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> tipo.getSimpleName() + "Falso";
+                };
+            }
+            throw new UnsupportedOperationException(metodo.getName());
+        });
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.models.Livro;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização Jackson de List&lt;Livro&gt; (o corpo de GET /api/livros) em 1k/10k/100k itens.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializacaoBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int quantidade;
+
+    private static final TypeReference<List<Livro>> LISTA_LIVROS = new TypeReference<>() { };
+
+    private ObjectWriter escritor;
+    private ObjectMapper mapper;
+    private List<Livro> livros;
+    private byte[] json;
+
+    @Setup
+    public void setup() throws Exception {
+        mapper = new ObjectMapper();
+        escritor = mapper.writerFor(LISTA_LIVROS);
+        livros = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            Livro livro = new Livro("Título do livro " + i, "Autor " + (i % 500), 100 + i % 900);
+            livro.setId((long) i + 1);
+            livros.add(livro);
+        }
+        json = escritor.writeValueAsBytes(livros);
+    }
+
+    @Benchmark
+    public byte[] serializar() throws Exception {
+        return escritor.writeValueAsBytes(livros);
+    }
+
+    @Benchmark
+    public List<Livro> desserializar() throws Exception {
+        return mapper.readValue(json, LISTA_LIVROS);
+    }
+}
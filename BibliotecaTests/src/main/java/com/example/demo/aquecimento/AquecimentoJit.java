@@ -0,0 +1,304 @@
+package com.example.demo.aquecimento;
+
+import com.example.demo.consultas.PerfiladorConsultas;
+import com.example.demo.models.Emprestimo;
+import com.example.demo.models.Livro;
+import com.example.demo.models.Usuario;
+import com.example.demo.repositories.LivroRepository;
+import com.example.demo.repositories.UsuarioRepository;
+import com.example.demo.services.EmprestimoService;
+import com.example.demo.services.UsuarioService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aquecimento do JIT antes da readiness: repete uma mistura sintética de GETs de LivroController
+ * (por HTTP na própria porta, passando por Tomcat, MVC e Jackson), buscas de UsuarioService e
+ * validações de EmprestimoService até a taxa de compilações C2 assentar (CriterioEstabilizacao,
+ * com as compilações contadas pelo JFR) ou o tempo máximo acabar. Sem JFR, roda até o tempo máximo.
+ * A carga roda sem parar e cada rodada é o intervalo entre dois flushes do JFR (cerca de 1 s): as
+ * compilações e as operações da rodada são lidas juntas no fim do flush, quando os eventos já chegaram.
+ *
+ * Nada é gravado: as buscas são somente leitura e os empréstimos só passam por EmprestimoService.validar
+ * (as mesmas buscas e a contagem de abertos de criar, em transação somente leitura, sem travar usuários).
+ * Roda como ApplicationRunner, depois do AquecimentoCatalogo e antes de a aplicação ficar pronta.
+ * No perfil memoria não roda: sem banco não há caminho de JDBC e Hibernate a aquecer.
+ * As métricas biblioteca.servico.* incluem as chamadas do aquecimento; o perfil de SQL é zerado no fim.
+ */
+@Slf4j
+@Component
+@Order(1)
+@Profile("!memoria")
+@ConditionalOnProperty(name = "biblioteca.aquecimento.habilitado", havingValue = "true")
+public class AquecimentoJit implements ApplicationRunner {
+
+    // livros e usuários de onde saem os ids, autores e emails das operações
+    static final int AMOSTRA = 200;
+
+    private final LivroRepository livroRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final UsuarioService usuarioService;
+    private final EmprestimoService emprestimoService;
+    private final Environment environment;
+    private final ObjectProvider<PerfiladorConsultas> perfilador;
+    private final int pesoLivros;
+    private final int pesoUsuarios;
+    private final int pesoEmprestimos;
+    private final int threads;
+    private final double taxaEstavel;
+    private final int rodadasEstaveis;
+    private final Duration duracaoMaxima;
+
+    private HttpClient http;
+    private String base;
+    private long[] idsLivros;
+    private String[] autores;
+    private long[] idsUsuarios;
+    private String[] emails;
+
+    public AquecimentoJit(LivroRepository livroRepository,
+                          UsuarioRepository usuarioRepository,
+                          UsuarioService usuarioService,
+                          EmprestimoService emprestimoService,
+                          Environment environment,
+                          ObjectProvider<PerfiladorConsultas> perfilador,
+                          @Value("${biblioteca.aquecimento.peso.livros:6}") int pesoLivros,
+                          @Value("${biblioteca.aquecimento.peso.usuarios:3}") int pesoUsuarios,
+                          @Value("${biblioteca.aquecimento.peso.emprestimos:1}") int pesoEmprestimos,
+                          @Value("${biblioteca.aquecimento.threads:2}") int threads,
+                          @Value("${biblioteca.aquecimento.taxa-estavel:2}") double taxaEstavel,
+                          @Value("${biblioteca.aquecimento.rodadas-estaveis:3}") int rodadasEstaveis,
+                          @Value("${biblioteca.aquecimento.duracao-maxima:60s}") Duration duracaoMaxima) {
+        if (pesoLivros < 0 || pesoUsuarios < 0 || pesoEmprestimos < 0) {
+            throw new IllegalArgumentException("Pesos do aquecimento não podem ser negativos.");
+        }
+        this.livroRepository = livroRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.usuarioService = usuarioService;
+        this.emprestimoService = emprestimoService;
+        this.environment = environment;
+        this.perfilador = perfilador;
+        this.pesoLivros = pesoLivros;
+        this.pesoUsuarios = pesoUsuarios;
+        this.pesoEmprestimos = pesoEmprestimos;
+        this.threads = Math.max(1, threads);
+        this.taxaEstavel = taxaEstavel;
+        this.rodadasEstaveis = rodadasEstaveis;
+        this.duracaoMaxima = duracaoMaxima;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        aquecer();
+    }
+
+    /**
+     * Executa rodadas da mistura até o JIT estabilizar ou duracao-maxima passar. Retorna o número de rodadas.
+     */
+    public int aquecer() throws Exception {
+        prepararAmostra();
+        Integer porta = environment.getProperty("local.server.port", Integer.class);
+        int pesoHttp = pesoLivros;
+        if (porta == null || porta <= 0) {
+            log.info("Aquecimento do JIT sem servidor web: GETs de livros ignorados");
+            pesoHttp = 0;
+        } else {
+            http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+            base = "http://localhost:" + porta + "/api/livros";
+        }
+        int pesoTotal = pesoHttp + pesoUsuarios + pesoEmprestimos;
+        if (pesoTotal == 0) {
+            log.info("Aquecimento do JIT sem operações (pesos zerados)");
+            return 0;
+        }
+
+        LongAdder operacoes = new LongAdder();
+        ContadorCompilacoesC2 c2 = null;
+        try {
+            c2 = ContadorCompilacoesC2.iniciar(operacoes::sum);
+        } catch (IllegalStateException e) {
+            log.warn("Aquecimento do JIT sem contagem de compilações C2, roda até a duração máxima: {}", e.getMessage());
+        }
+        CriterioEstabilizacao criterio = new CriterioEstabilizacao(taxaEstavel, rodadasEstaveis);
+        AtomicInteger falhas = new AtomicInteger();
+        AtomicInteger sequencia = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "aquecimento-jit-" + sequencia.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        long inicio = System.nanoTime();
+        long limite = inicio + duracaoMaxima.toNanos();
+        int rodadas = 0;
+        AtomicBoolean ativo = new AtomicBoolean(true);
+        try {
+            int pesoGets = pesoHttp;
+            for (int t = 0; t < threads; t++) {
+                executor.execute(() -> executarMistura(ativo, pesoGets, pesoTotal, operacoes, falhas));
+            }
+            if (c2 == null) {
+                TimeUnit.NANOSECONDS.sleep(limite - System.nanoTime());
+            } else {
+                ContadorCompilacoesC2.Amostra anterior = new ContadorCompilacoesC2.Amostra(0, 0);
+                boolean estavel = false;
+                while (!estavel && System.nanoTime() < limite) {
+                    ContadorCompilacoesC2.Amostra amostra =
+                            c2.proximaAmostra(Duration.ofNanos(limite - System.nanoTime()));
+                    if (amostra == null) break;
+                    long operacoesRodada = amostra.operacoes() - anterior.operacoes();
+                    if (operacoesRodada == 0) {
+                        // flush antes de a carga começar: não é rodada
+                        anterior = amostra;
+                        continue;
+                    }
+                    rodadas++;
+                    estavel = criterio.registrar(amostra.compilacoes() - anterior.compilacoes(), operacoesRodada);
+                    anterior = amostra;
+                    log.debug("Aquecimento do JIT, rodada {}: {} operações, {} compilações C2 por mil operações",
+                            rodadas, operacoesRodada, String.format("%.1f", criterio.getUltimaTaxa()));
+                }
+            }
+        } finally {
+            ativo.set(false);
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+            if (c2 != null) {
+                c2.close();
+            }
+        }
+        perfilador.ifAvailable(PerfiladorConsultas::limpar);
+        log.info("Aquecimento do JIT: {} rodadas ({} operações, {} com erro) em {} ms; compilações C2 por mil operações na última: {}{}",
+                rodadas, operacoes.sum(), falhas.get(), (System.nanoTime() - inicio) / 1_000_000,
+                c2 != null ? String.format("%.1f", criterio.getUltimaTaxa()) : "n/d",
+                criterio.estavel() || c2 == null ? "" : " (tempo máximo atingido antes de estabilizar)");
+        return rodadas;
+    }
+
+    private void prepararAmostra() {
+        List<Livro> livros = livroRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(AMOSTRA));
+        idsLivros = livros.stream().mapToLong(Livro::getId).toArray();
+        autores = livros.stream().map(Livro::getAutor).filter(a -> a != null && !a.isBlank()).distinct().toArray(String[]::new);
+        List<Usuario> usuarios = usuarioRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(AMOSTRA));
+        idsUsuarios = usuarios.stream().mapToLong(Usuario::getId).toArray();
+        emails = usuarios.stream().map(Usuario::getEmail).filter(e -> e != null).toArray(String[]::new);
+    }
+
+    private void executarMistura(AtomicBoolean ativo, int pesoHttp, int pesoTotal, LongAdder operacoes,
+                                 AtomicInteger falhas) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        while (ativo.get()) {
+            int sorteio = rnd.nextInt(pesoTotal);
+            try {
+                if (sorteio < pesoHttp) {
+                    consultarLivros(rnd);
+                } else if (sorteio < pesoHttp + pesoUsuarios) {
+                    buscarUsuario(rnd);
+                } else {
+                    validarEmprestimo(rnd);
+                }
+            } catch (InterruptedException e) {
+                // encerramento pelo shutdownNow
+                return;
+            } catch (Exception e) {
+                falhas.incrementAndGet();
+                log.debug("Operação do aquecimento falhou: {}", e.toString());
+            }
+            operacoes.increment();
+        }
+    }
+
+    // ---------- LivroController (HTTP) ----------
+
+    private void consultarLivros(ThreadLocalRandom rnd) throws IOException, InterruptedException {
+        switch (rnd.nextInt(4)) {
+            case 0 -> {
+                // GET por id e revalidação do mesmo livro com o ETag recebido (304)
+                String caminho = "/" + sortear(idsLivros, rnd);
+                Optional<String> etag = get(caminho, null).headers().firstValue("ETag");
+                if (etag.isPresent()) {
+                    get(caminho, etag.get());
+                }
+            }
+            case 1 -> get("/pagina?tamanho=20", null);
+            case 2 -> get("/pagina?tamanho=20&ordem=titulo", null);
+            default -> get("/autor?autor=" + URLEncoder.encode(sortear(autores, rnd, "Autor"), StandardCharsets.UTF_8)
+                    + "&ascendente=" + rnd.nextBoolean(), null);
+        }
+    }
+
+    private HttpResponse<Void> get(String caminho, String ifNoneMatch) throws IOException, InterruptedException {
+        HttpRequest.Builder pedido = HttpRequest.newBuilder(URI.create(base + caminho)).timeout(Duration.ofSeconds(10));
+        if (ifNoneMatch != null) {
+            pedido.header("If-None-Match", ifNoneMatch);
+        }
+        return http.send(pedido.build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    // ---------- UsuarioService ----------
+
+    private void buscarUsuario(ThreadLocalRandom rnd) {
+        switch (rnd.nextInt(3)) {
+            case 0 -> usuarioService.buscarPorId(sortear(idsUsuarios, rnd));
+            case 1 -> usuarioService.buscarPorEmail(sortear(emails, rnd, "aquecimento@biblioteca.local"));
+            default -> usuarioService.buscarPorNomeLike(String.valueOf((char) ('a' + rnd.nextInt(26))));
+        }
+    }
+
+    // ---------- EmprestimoService (somente validação) ----------
+
+    private void validarEmprestimo(ThreadLocalRandom rnd) {
+        Usuario usuario = new Usuario();
+        usuario.setId(sortear(idsUsuarios, rnd));
+        Livro livro = new Livro();
+        livro.setId(sortear(idsLivros, rnd));
+        Emprestimo pedido = new Emprestimo(usuario, livro, LocalDate.now(), null);
+        switch (rnd.nextInt(3)) {
+            case 0 -> pedido.setDataDevolucao(LocalDate.now().minusDays(1)); // devolução antes do empréstimo
+            case 1 -> usuario.setId(-1L); // usuário inexistente
+            default -> { } // pedido válido: busca usuário e livro e conta os abertos
+        }
+
+        try {
+            emprestimoService.validar(pedido);
+        } catch (RuntimeException e) {
+            // regras de validação: o caminho que interessa aquecer
+        }
+    }
+
+    // id inexistente quando a amostra está vazia (exercita o caminho de "não encontrado")
+    private static long sortear(long[] ids, ThreadLocalRandom rnd) {
+        return ids.length == 0 ? -1L : ids[rnd.nextInt(ids.length)];
+    }
+
+    private static String sortear(String[] valores, ThreadLocalRandom rnd, String padrao) {
+        return valores.length == 0 ? padrao : valores[rnd.nextInt(valores.length)];
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.aquecimento;
+
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Conta as compilações C2 (nível 4) do processo a partir dos eventos jdk.Compilation do JFR.
+ * Os eventos chegam em lotes, a cada flush do JFR (cerca de um por segundo): ler o total no meio de um
+ * intervalo vê zero para o que ainda não foi entregue. Por isso a leitura é por amostra, tirada no fim de
+ * cada flush, com o contador de operações lido no mesmo momento.
+ */
+final class ContadorCompilacoesC2 implements AutoCloseable {
+
+    private static final int NIVEL_C2 = 4;
+
+    /**
+     * Totais acumulados no fim de um flush.
+     */
+    record Amostra(long compilacoes, long operacoes) {
+    }
+
+    private final RecordingStream stream;
+    private final AtomicLong total = new AtomicLong();
+    private final BlockingQueue<Amostra> amostras = new LinkedBlockingQueue<>();
+
+    private ContadorCompilacoesC2(RecordingStream stream, LongSupplier operacoes) {
+        this.stream = stream;
+        // o limite padrão do evento (1 s) só registraria compilações lentas
+        stream.enable("jdk.Compilation").withThreshold(Duration.ZERO);
+        stream.onEvent("jdk.Compilation", evento -> {
+            if (evento.getInt("compileLevel") == NIVEL_C2) {
+                total.incrementAndGet();
+            }
+        });
+        // roda depois de entregues todos os eventos do flush
+        stream.onFlush(() -> amostras.offer(new Amostra(total.get(), operacoes.getAsLong())));
+        stream.startAsync();
+    }
+
+    /**
+     * Começa a contar; lança IllegalStateException se o JFR não estiver disponível nesta JVM.
+     */
+    static ContadorCompilacoesC2 iniciar(LongSupplier operacoes) {
+        try {
+            return new ContadorCompilacoesC2(new RecordingStream(), operacoes);
+        } catch (RuntimeException | LinkageError e) {
+            throw new IllegalStateException("JFR indisponível: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Próxima amostra, esperando até espera pelo flush; null se ele não vier a tempo.
+     */
+    Amostra proximaAmostra(Duration espera) throws InterruptedException {
+        return amostras.poll(Math.max(espera.toNanos(), 0), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+}
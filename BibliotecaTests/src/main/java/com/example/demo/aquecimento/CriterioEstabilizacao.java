@@ -0,0 +1,38 @@
+package com.example.demo.aquecimento;
+
+/**
+ * Decide quando o JIT estabilizou: a taxa de compilações C2 (por mil operações) ficou abaixo do
+ * limite em um número de rodadas seguidas. Uma rodada acima do limite zera a contagem.
+ */
+public final class CriterioEstabilizacao {
+
+    private final double taxaMaxima;
+    private final int rodadasNecessarias;
+    private int rodadasAbaixo;
+    private double ultimaTaxa = Double.NaN;
+
+    public CriterioEstabilizacao(double taxaMaxima, int rodadasNecessarias) {
+        if (taxaMaxima < 0 || rodadasNecessarias < 1) {
+            throw new IllegalArgumentException("Taxa máxima deve ser >= 0 e rodadas necessárias >= 1.");
+        }
+        this.taxaMaxima = taxaMaxima;
+        this.rodadasNecessarias = rodadasNecessarias;
+    }
+
+    /**
+     * Registra uma rodada com compilacoes compilações em operacoes operações e retorna se o JIT já estabilizou.
+     */
+    public boolean registrar(long compilacoes, long operacoes) {
+        ultimaTaxa = operacoes > 0 ? compilacoes * 1000.0 / operacoes : 0;
+        rodadasAbaixo = ultimaTaxa <= taxaMaxima ? rodadasAbaixo + 1 : 0;
+        return estavel();
+    }
+
+    public boolean estavel() {
+        return rodadasAbaixo >= rodadasNecessarias;
+    }
+
+    public double getUltimaTaxa() {
+        return ultimaTaxa;
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.demo.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cache em memória limitado por tamanho (LRU) e por tempo de vida (TTL).
+ * A carga (findById etc.) roda fora do lock; se a chave for invalidada durante a carga,
+ * o valor carregado não é guardado, para não trazer de volta um dado antigo.
+ * Com uma função de cópia, entra e sai sempre cópia: quem recebe um valor pode alterá-lo
+ * sem afetar o cache nem os outros chamadores.
+ */
+public class CacheEntidade<K, V> {
+
+    private record Entrada<V>(V valor, long expiraEmNanos) {
+    }
+
+    // cargas em andamento de uma chave; geracao muda a cada invalidação da chave
+    private static final class Carga {
+        int emAndamento;
+        long geracao;
+    }
+
+    private final String nome;
+    private final int tamanhoMaximo;
+    private final long ttlNanos;
+    private final UnaryOperator<V> copia;
+    private final Map<K, Entrada<V>> entradas;
+
+    // só chaves com carga em andamento; protege contra cargas concorrentes com escrita
+    private final Map<K, Carga> cargas = new HashMap<>();
+
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+    private final LongAdder remocoes = new LongAdder();
+
+    /**
+     * Cache que guarda e entrega a própria instância; para valores imutáveis ou de uso interno.
+     */
+    public CacheEntidade(String nome, int tamanhoMaximo, Duration ttl) {
+        this(nome, tamanhoMaximo, ttl, UnaryOperator.identity());
+    }
+
+    public CacheEntidade(String nome, int tamanhoMaximo, Duration ttl, UnaryOperator<V> copia) {
+        if (tamanhoMaximo <= 0) {
+            throw new IllegalArgumentException("Tamanho máximo do cache deve ser positivo.");
+        }
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("TTL do cache deve ser positivo.");
+        }
+        this.nome = nome;
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.ttlNanos = ttl.toNanos();
+        this.copia = copia;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> eldest) {
+                if (size() > CacheEntidade.this.tamanhoMaximo) {
+                    remocoes.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public int getTamanhoMaximo() {
+        return tamanhoMaximo;
+    }
+
+    /**
+     * Retorna o valor em cache ou carrega com o carregador (read-through).
+     * Exceções do carregador são propagadas e nada é guardado.
+     */
+    public V obter(K chave, Function<K, V> carregador) {
+        Carga carga;
+        long geracaoNaFalha;
+        synchronized (this) {
+            V valor = valorValido(chave);
+            if (valor != null) {
+                acertos.increment();
+                return copia.apply(valor);
+            }
+            carga = cargas.computeIfAbsent(chave, k -> new Carga());
+            carga.emAndamento++;
+            geracaoNaFalha = carga.geracao;
+        }
+        falhas.increment();
+
+        V carregado = null;
+        try {
+            carregado = carregador.apply(chave);
+            return carregado;
+        } finally {
+            synchronized (this) {
+                if (carregado != null && carga.geracao == geracaoNaFalha) {
+                    entradas.put(chave, new Entrada<>(copia.apply(carregado), System.nanoTime() + ttlNanos));
+                }
+                if (--carga.emAndamento == 0) {
+                    cargas.remove(chave);
+                }
+            }
+        }
+    }
+
+    /**
+     * Consulta só o cache, sem carregar. Conta acerto/falha normalmente.
+     */
+    public Optional<V> consultar(K chave) {
+        V valor;
+        synchronized (this) {
+            valor = valorValido(chave);
+        }
+        if (valor != null) {
+            acertos.increment();
+        } else {
+            falhas.increment();
+        }
+        return Optional.ofNullable(valor).map(copia);
+    }
+
+    /**
+     * Consulta só o cache sem contar acerto/falha, para leituras auxiliares (ex.: versão para ETag)
+     * que não devem distorcer a taxa de acerto das leituras de fato.
+     */
+    public Optional<V> espiar(K chave) {
+        V valor;
+        synchronized (this) {
+            valor = valorValido(chave);
+        }
+        return Optional.ofNullable(valor).map(copia);
+    }
+
+    public synchronized void guardar(K chave, V valor) {
+        if (chave == null || valor == null) return;
+        entradas.put(chave, new Entrada<>(copia.apply(valor), System.nanoTime() + ttlNanos));
+    }
+
+    /**
+     * Altera no lugar cada valor em cache, sem mexer em TTL nem na ordem LRU. Conta como invalidação
+     * de todas as chaves: cargas em andamento podem ter lido o banco antes da escrita e não são guardadas.
+     */
+    public synchronized void alterarTodos(Consumer<V> alteracao) {
+        cargas.values().forEach(c -> c.geracao++);
+        for (Entrada<V> entrada : entradas.values()) {
+            alteracao.accept(entrada.valor());
+        }
+    }
+
+    /**
+     * Remove a chave e descarta as cargas dela em andamento; as de outras chaves seguem.
+     */
+    public synchronized void invalidar(K chave) {
+        Carga carga = cargas.get(chave);
+        if (carga != null) {
+            carga.geracao++;
+        }
+        entradas.remove(chave);
+    }
+
+    public synchronized void limpar() {
+        cargas.values().forEach(c -> c.geracao++);
+        entradas.clear();
+    }
+
+    public synchronized int tamanho() {
+        return entradas.size();
+    }
+
+    public EstatisticasCache estatisticas() {
+        return new EstatisticasCache(nome, acertos.sum(), falhas.sum(), remocoes.sum(), tamanho(), tamanhoMaximo);
+    }
+
+    // chamado com o lock adquirido; remove a entrada se o TTL venceu
+    private V valorValido(K chave) {
+        Entrada<V> entrada = entradas.get(chave);
+        if (entrada == null) return null;
+        if (System.nanoTime() - entrada.expiraEmNanos() >= 0) {
+            entradas.remove(chave);
+            remocoes.increment();
+            return null;
+        }
+        return entrada.valor();
+    }
+}
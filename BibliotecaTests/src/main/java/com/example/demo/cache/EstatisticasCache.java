@@ -0,0 +1,13 @@
+package com.example.demo.cache;
+
+/**
+ * Fotografia dos contadores de um cache. remocoes soma despejos por tamanho e por TTL.
+ */
+public record EstatisticasCache(String nome, long acertos, long falhas, long remocoes,
+                                int tamanho, int tamanhoMaximo) {
+
+    public double taxaAcerto() {
+        long total = acertos + falhas;
+        return total == 0 ? 0.0 : (double) acertos / total;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.cache;
+
+import com.example.demo.config.SegundoNivelCacheConfig;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converte as estatísticas do cache de segundo nível do Hibernate para EstatisticasCache.
+ * Depende de hibernate.generate_statistics (biblioteca.cache.estatisticas-hibernate=true); desligado,
+ * reporta uma única entrada hibernate-estatisticas-desligadas em vez de contadores zerados.
+ * Ausente no perfil memoria (sem Hibernate).
+ */
+@Component
+@Profile("!memoria")
+public class EstatisticasSegundoNivel {
+
+    public static final String DESLIGADAS = "hibernate-estatisticas-desligadas";
+
+    private final Statistics estatisticas;
+
+    public EstatisticasSegundoNivel(EntityManagerFactory entityManagerFactory) {
+        this.estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public boolean habilitadas() {
+        return estatisticas.isStatisticsEnabled();
+    }
+
+    public List<EstatisticasCache> regioes() {
+        if (!habilitadas()) {
+            return List.of(new EstatisticasCache(DESLIGADAS, 0, 0, 0, -1, -1));
+        }
+        List<EstatisticasCache> resultado = new ArrayList<>();
+        for (String regiao : List.of(SegundoNivelCacheConfig.REGIAO_LIVROS, SegundoNivelCacheConfig.REGIAO_USUARIOS)) {
+            CacheRegionStatistics r = estatisticas.getDomainDataRegionStatistics(regiao);
+            resultado.add(new EstatisticasCache("hibernate-" + regiao, r.getHitCount(), r.getMissCount(), 0,
+                    (int) Math.max(r.getElementCountInMemory(), 0), -1));
+        }
+        resultado.add(new EstatisticasCache("hibernate-consultas", estatisticas.getQueryCacheHitCount(),
+                estatisticas.getQueryCacheMissCount(), 0, -1, -1));
+        return resultado;
+    }
+}
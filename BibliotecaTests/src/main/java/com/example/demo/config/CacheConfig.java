@@ -0,0 +1,41 @@
+package com.example.demo.config;
+
+import com.example.demo.cache.CacheEntidade;
+import com.example.demo.models.Livro;
+import com.example.demo.models.Usuario;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Caches de leitura por entidade. Um serviço passa a usar cache quando existe um bean
+ * CacheEntidade com os tipos de id/entidade dele (ver AbstractService.setCache).
+ * Entidades entram e saem copiadas, então quem recebe pode alterá-las.
+ */
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public CacheEntidade<Long, Livro> cacheLivros(
+            @Value("${biblioteca.cache.livros.tamanho-maximo:10000}") int tamanhoMaximo,
+            @Value("${biblioteca.cache.livros.ttl:10m}") Duration ttl) {
+        return new CacheEntidade<>("livros", tamanhoMaximo, ttl, Livro::copiar);
+    }
+
+    @Bean
+    public CacheEntidade<Long, Usuario> cacheUsuarios(
+            @Value("${biblioteca.cache.usuarios.tamanho-maximo:10000}") int tamanhoMaximo,
+            @Value("${biblioteca.cache.usuarios.ttl:10m}") Duration ttl) {
+        return new CacheEntidade<>("usuarios", tamanhoMaximo, ttl, Usuario::copiar);
+    }
+
+    // índice email -> id; a entidade em si fica no cacheUsuarios
+    @Bean
+    public CacheEntidade<String, Long> cacheEmailUsuarios(
+            @Value("${biblioteca.cache.usuarios.tamanho-maximo:10000}") int tamanhoMaximo,
+            @Value("${biblioteca.cache.usuarios.ttl:10m}") Duration ttl) {
+        return new CacheEntidade<>("usuarios-email", tamanhoMaximo, ttl);
+    }
+}
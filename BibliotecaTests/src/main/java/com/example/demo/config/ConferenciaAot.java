@@ -0,0 +1,89 @@
+package com.example.demo.config;
+
+import com.example.demo.aquecimento.AquecimentoJit;
+import com.example.demo.services.EmprestimoPipeline;
+import com.example.demo.snapshot.AquecimentoCatalogo;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Com o contexto processado AOT (-Dspring.aot.enabled=true, perfil Maven partida-rapida), @Profile e
+ * @ConditionalOnProperty foram decididos no process-aot e não são reavaliados na execução: mudar uma das
+ * chaves abaixo só na linha de comando seria ignorado em silêncio. Aqui cada chave é comparada com o que
+ * o contexto gerado traz, e a subida falha listando as divergências. Sem AOT não faz nada.
+ */
+@Component
+public class ConferenciaAot implements BeanFactoryPostProcessor, EnvironmentAware {
+
+    /**
+     * Chave da configuração, se ela liga o componente nesta execução e o tipo do componente.
+     */
+    private record Chave(String nome, Predicate<Environment> ligada, Class<?> componente) {
+    }
+
+    private static final List<Chave> CHAVES = List.of(
+            new Chave("spring.profiles.active=memoria", env -> memoria(env), MemoriaConfig.class),
+            new Chave("biblioteca.datasource.replica.url",
+                    env -> !"false".equalsIgnoreCase(env.getProperty("biblioteca.datasource.replica.url", "false")),
+                    ReplicaDataSourceConfig.class),
+            new Chave("biblioteca.emprestimos.agrupamento.habilitado",
+                    env -> habilitado(env, "biblioteca.emprestimos.agrupamento.habilitado"), EmprestimoPipeline.class),
+            new Chave("biblioteca.consultas.perfilador.habilitado",
+                    env -> habilitado(env, "biblioteca.consultas.perfilador.habilitado"), PerfiladorConsultasConfig.class),
+            new Chave("biblioteca.snapshot.habilitado",
+                    env -> habilitado(env, "biblioteca.snapshot.habilitado"), AquecimentoCatalogo.class),
+            new Chave("biblioteca.aquecimento.habilitado",
+                    env -> habilitado(env, "biblioteca.aquecimento.habilitado") && !memoria(env), AquecimentoJit.class),
+            new Chave("spring.threads.virtual.enabled",
+                    env -> habilitado(env, "spring.threads.virtual.enabled"), VirtualThreadsConfig.class));
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        if (!AotDetector.useGeneratedArtifacts()) return;
+        List<String> divergentes = divergencias(beanFactory, environment);
+        if (!divergentes.isEmpty()) {
+            throw new IllegalStateException("Contexto AOT gerado com outra configuração para " + divergentes
+                    + "; refaça o process-aot (mvn -Ppartida-rapida package) com esses valores ou suba sem "
+                    + "-Dspring.aot.enabled=true.");
+        }
+    }
+
+    /**
+     * Chaves cujo valor nesta execução não bate com o contexto: "chave (execução: x, contexto: y)".
+     */
+    public static List<String> divergencias(ConfigurableListableBeanFactory beanFactory, Environment environment) {
+        List<String> divergentes = new ArrayList<>();
+        for (Chave chave : CHAVES) {
+            boolean ligada = chave.ligada().test(environment);
+            boolean presente = beanFactory.getBeanNamesForType(chave.componente(), true, false).length > 0;
+            if (ligada != presente) {
+                divergentes.add(chave.nome() + " (execução: " + ligada + ", contexto: " + presente + ")");
+            }
+        }
+        return divergentes;
+    }
+
+    private static boolean habilitado(Environment env, String chave) {
+        return env.getProperty(chave, Boolean.class, false);
+    }
+
+    private static boolean memoria(Environment env) {
+        return env.acceptsProfiles(Profiles.of("memoria"));
+    }
+}
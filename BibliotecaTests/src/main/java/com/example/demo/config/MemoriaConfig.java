@@ -0,0 +1,23 @@
+package com.example.demo.config;
+
+import com.example.demo.repositories.memoria.TransacaoMemoriaManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Perfil memoria: repositórios em memória (com.example.demo.repositories.memoria) no lugar do
+ * JPA, sem PostgreSQL. DataSource, Hibernate e Spring Data JPA ficam desligados em
+ * application-memoria.properties; aqui entra o gerenciador de transações. Não há EntityManager:
+ * os serviços usam ContextoPersistencia (ContextoPersistenciaMemoria neste perfil).
+ */
+@Configuration
+@Profile("memoria")
+public class MemoriaConfig {
+
+    @Bean
+    public PlatformTransactionManager transactionManager() {
+        return new TransacaoMemoriaManager();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.demo.config;
+
+import com.example.demo.consultas.JdbcPerfilado;
+import com.example.demo.consultas.OrigemConsultaPostProcessor;
+import com.example.demo.consultas.PerfiladorConsultas;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Instrumentação de SQL no lugar de spring.jpa.show-sql: o DataSource principal é envolvido por
+ * JdbcPerfilado e cada repositório publica o método em execução (OrigemConsulta).
+ * Resultados em /api/admin/consultas; desligado por padrão (o proxy pesa em toda execução), ligue com
+ * biblioteca.consultas.perfilador.habilitado=true.
+ */
+@Configuration
+@ConditionalOnProperty(name = "biblioteca.consultas.perfilador.habilitado", havingValue = "true")
+public class PerfiladorConsultasConfig {
+
+    // só o bean "dataSource" (com ou sem réplica); os pools internos da réplica não são envolvidos de novo
+    @Bean
+    static BeanPostProcessor perfiladorDataSourcePostProcessor(ObjectProvider<PerfiladorConsultas> perfilador) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String nome) {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(nome)) {
+                    return JdbcPerfilado.envolver(dataSource, perfilador.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    static OrigemConsultaPostProcessor origemConsultaPostProcessor() {
+        return new OrigemConsultaPostProcessor();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.demo.config;
+
+import com.example.demo.roteamento.EscritaNoPrimarioAspect;
+import com.example.demo.roteamento.LimpezaRoteamentoFilter;
+import com.example.demo.roteamento.RoteamentoDataSource;
+import com.example.demo.roteamento.RoteamentoTransactionManager;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Primário + réplica de leitura (perfil replica). Ativo quando biblioteca.datasource.replica.url
+ * está definida; sem ela a aplicação usa só spring.datasource, como antes.
+ *
+ * Leituras em transação somente leitura vão à réplica; escritas, e tudo que roda dentro delas,
+ * vão ao primário. Com biblioteca.datasource.replica.ler-proprias-escritas=true (padrão) a
+ * requisição que escreveu continua no primário até terminar. O que alimenta caches não vem da
+ * réplica: as buscas por id/email e o índice de autores leem do primário, e as transações da
+ * réplica não guardam no cache de segundo nível.
+ */
+@Configuration
+@ConditionalOnProperty(name = "biblioteca.datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    // pool do primário configurado por spring.datasource.hikari.*, como no modo sem réplica
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimario(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // biblioteca.datasource.replica.* segue o formato de spring.datasource.* (url, username, password, hikari.*).
+    // Ligado à mão para não criar um segundo bean DataSourceProperties
+    @Bean
+    public HikariDataSource dataSourceReplica(Environment ambiente) throws Exception {
+        Binder binder = Binder.get(ambiente);
+        DataSourceProperties propriedades = binder.bind("biblioteca.datasource.replica", DataSourceProperties.class)
+                .orElseThrow(() -> new IllegalStateException("biblioteca.datasource.replica não configurada."));
+        propriedades.afterPropertiesSet();
+        HikariDataSource replica = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("biblioteca.datasource.replica.hikari", Bindable.ofInstance(replica));
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    // o proxy adia a escolha do destino até o primeiro comando, quando o flag readOnly já foi publicado
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("dataSourcePrimario") DataSource dataSourcePrimario,
+                                 @Qualifier("dataSourceReplica") DataSource dataSourceReplica) {
+        return new LazyConnectionDataSourceProxy(new RoteamentoDataSource(dataSourcePrimario, dataSourceReplica));
+    }
+
+    // no lugar do JpaTransactionManager do Boot, com os mesmos customizadores (spring.transaction.*)
+    @Bean
+    public RoteamentoTransactionManager transactionManager(ObjectProvider<TransactionManagerCustomizers> customizadores) {
+        RoteamentoTransactionManager transactionManager = new RoteamentoTransactionManager();
+        customizadores.ifAvailable(c -> c.customize(transactionManager));
+        return transactionManager;
+    }
+
+    @Bean
+    public EscritaNoPrimarioAspect escritaNoPrimarioAspect(
+            @Value("${biblioteca.datasource.replica.ler-proprias-escritas:true}") boolean lerPropriasEscritas) {
+        return new EscritaNoPrimarioAspect(lerPropriasEscritas);
+    }
+
+    @Bean
+    public LimpezaRoteamentoFilter limpezaRoteamentoFilter() {
+        return new LimpezaRoteamentoFilter();
+    }
+}
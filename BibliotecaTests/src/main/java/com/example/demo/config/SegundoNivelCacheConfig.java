@@ -0,0 +1,78 @@
+package com.example.demo.config;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Regiões do cache de segundo nível do Hibernate (Ehcache via JCache, em memória), com tamanho
+ * configurável por região. O Hibernate invalida as regiões a cada escrita feita pelo
+ * EntityManager (save/delete dos serviços); escritas fora dele (SQL direto, outra instância) não
+ * são vistas, por isso as entradas vencem com o mesmo TTL dos caches de CacheConfig.
+ *
+ * As duas camadas atendem chamadores diferentes. CacheEntidade (CacheConfig) atende as leituras por
+ * id dos serviços sem abrir transação nem pegar conexão, entrega cópias e é a que o snapshot aquece.
+ * O segundo nível atende o que o próprio Hibernate carrega dentro de transações (findById de
+ * EmprestimoService.preparar, a releitura de atualizar) e as consultas por autor/email, que
+ * precisam de entidades gerenciadas. As mesmas escritas invalidam as duas.
+ */
+@Configuration
+@Profile("!memoria")
+public class SegundoNivelCacheConfig {
+
+    // mesmos nomes de @Cache(region = ...) em Livro e Usuario
+    public static final String REGIAO_LIVROS = "livros";
+    public static final String REGIAO_USUARIOS = "usuarios";
+    // nomes padrão do Hibernate para o cache de consultas e os timestamps de invalidação
+    public static final String REGIAO_CONSULTAS = "default-query-results-region";
+    public static final String REGIAO_TIMESTAMPS = "default-update-timestamps-region";
+
+    // uma tabela por entrada; pequeno, mas não pode perder entradas (senão consultas em cache ficam velhas)
+    private static final int TAMANHO_TIMESTAMPS = 1000;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager cacheManagerSegundoNivel(
+            @Value("${biblioteca.cache.segundo-nivel.livros.tamanho-maximo:10000}") long livros,
+            @Value("${biblioteca.cache.segundo-nivel.usuarios.tamanho-maximo:10000}") long usuarios,
+            @Value("${biblioteca.cache.segundo-nivel.consultas.tamanho-maximo:1000}") long consultas,
+            @Value("${biblioteca.cache.livros.ttl:10m}") Duration ttlLivros,
+            @Value("${biblioteca.cache.usuarios.ttl:10m}") Duration ttlUsuarios) {
+        EhcacheCachingProvider provedor = (EhcacheCachingProvider)
+                Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        // consultas em cache são de livros (por autor) e de usuários (por email): vale o menor TTL
+        Duration ttlConsultas = ttlLivros.compareTo(ttlUsuarios) <= 0 ? ttlLivros : ttlUsuarios;
+        org.ehcache.config.Configuration configuracao = ConfigurationBuilder.newConfigurationBuilder()
+                .withCache(REGIAO_LIVROS, regiao(livros).withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(ttlLivros)))
+                .withCache(REGIAO_USUARIOS, regiao(usuarios).withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(ttlUsuarios)))
+                .withCache(REGIAO_CONSULTAS, regiao(consultas).withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(ttlConsultas)))
+                // timestamps não vencem: sem eles o Hibernate não sabe que uma consulta em cache ficou velha
+                .withCache(REGIAO_TIMESTAMPS, regiao(TAMANHO_TIMESTAMPS))
+                .build();
+        // URI própria por contexto: vários contextos Spring na mesma JVM (testes) não dividem regiões
+        return provedor.getCacheManager(URI.create("urn:biblioteca:segundo-nivel:" + UUID.randomUUID()), configuracao);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer segundoNivelHibernate(CacheManager cacheManagerSegundoNivel) {
+        return propriedades -> propriedades.put(ConfigSettings.CACHE_MANAGER, cacheManagerSegundoNivel);
+    }
+
+    private static CacheConfigurationBuilder<Object, Object> regiao(long entradas) {
+        return CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                ResourcePoolsBuilder.heap(entradas));
+    }
+}
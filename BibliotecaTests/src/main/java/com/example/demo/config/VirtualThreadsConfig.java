@@ -0,0 +1,66 @@
+package com.example.demo.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * Verificações do modo threads virtuais (spring.threads.virtual.enabled=true).
+ * Threads virtuais ficam presas à thread portadora (pinning) quando bloqueiam dentro de
+ * synchronized; o driver PostgreSQL só trocou synchronized por ReentrantLock a partir da 42.6.
+ * Com driver mais antigo a subida falha, em vez de rodar com as requisições presas às portadoras.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    static final int DRIVER_POSTGRES_MAJOR_MINIMO = 42;
+    static final int DRIVER_POSTGRES_MINOR_MINIMO = 6;
+
+    private final String url;
+
+    public VirtualThreadsConfig(@Value("${spring.datasource.url:}") String url) {
+        this.url = url;
+    }
+
+    @PostConstruct
+    public void recusarDriverComPinning() {
+        if (Runtime.version().feature() < 21) {
+            log.warn("spring.threads.virtual.enabled=true exige Java 21; rodando em {}", Runtime.version());
+        }
+        if (System.getProperty("jdk.tracePinnedThreads") == null) {
+            log.info("Dica: rode com -Djdk.tracePinnedThreads=short para registrar pinning de threads virtuais");
+        }
+        if (url.isBlank()) return;
+
+        // o driver que o DataSource vai usar para a URL, sem abrir conexão
+        Driver driver;
+        try {
+            driver = DriverManager.getDriver(url);
+        } catch (SQLException e) {
+            log.warn("Não foi possível verificar o driver JDBC: {}", e.getMessage());
+            return;
+        }
+        String nome = driver.getClass().getName();
+        log.info("Threads virtuais ativas; driver JDBC: {} {}.{}", nome, driver.getMajorVersion(), driver.getMinorVersion());
+        if (driverPostgresAntigo(nome, driver.getMajorVersion(), driver.getMinorVersion())) {
+            throw new IllegalStateException("Driver PostgreSQL " + driver.getMajorVersion() + "."
+                    + driver.getMinorVersion() + " usa synchronized em I/O e prende threads virtuais; use "
+                    + DRIVER_POSTGRES_MAJOR_MINIMO + "." + DRIVER_POSTGRES_MINOR_MINIMO
+                    + " ou superior, ou suba sem spring.threads.virtual.enabled=true.");
+        }
+    }
+
+    static boolean driverPostgresAntigo(String nome, int major, int minor) {
+        if (nome == null || !nome.toLowerCase().contains("postgresql")) return false;
+        return major < DRIVER_POSTGRES_MAJOR_MINIMO
+                || (major == DRIVER_POSTGRES_MAJOR_MINIMO && minor < DRIVER_POSTGRES_MINOR_MINIMO);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.consultas;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latência em microssegundos, log-linear: 2^bitsPrecisao faixas por potência de 2, então
+ * um percentil é reportado com erro relativo de no máximo 1/2^bitsPrecisao (12,5% no padrão de 3 bits).
+ * Gravação sem lock e sem alocação.
+ */
+public class HistogramaLatencia {
+
+    private final int subBits;
+    private final int sub;
+    private final int faixas;
+    private final AtomicLongArray contagens;
+    private final LongAdder total = new LongAdder();
+    private final LongAdder somaMicros = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+    public HistogramaLatencia() {
+        this(3);
+    }
+
+    public HistogramaLatencia(int bitsPrecisao) {
+        if (bitsPrecisao < 1 || bitsPrecisao > 10) {
+            throw new IllegalArgumentException("Bits de precisão devem estar entre 1 e 10.");
+        }
+        this.subBits = bitsPrecisao;
+        this.sub = 1 << bitsPrecisao;
+        this.faixas = (64 - bitsPrecisao) * sub;
+        this.contagens = new AtomicLongArray(faixas);
+    }
+
+    public void registrar(long nanos) {
+        long micros = Math.max(nanos / 1000, 0);
+        contagens.incrementAndGet(indice(micros));
+        total.increment();
+        somaMicros.add(micros);
+        maximo.accumulate(micros);
+    }
+
+    /**
+     * Registra a latência com correção de omissão coordenada: se ela passou do intervalo esperado entre
+     * pedidos, os pedidos que o gerador deixou de enviar enquanto esperava entram com latências
+     * nanos - intervalo, nanos - 2 * intervalo, ... (como recordValueWithExpectedInterval do HdrHistogram).
+     */
+    public void registrar(long nanos, long intervaloEsperadoNanos) {
+        registrar(nanos);
+        if (intervaloEsperadoNanos <= 0) return;
+        for (long faltante = nanos - intervaloEsperadoNanos; faltante >= intervaloEsperadoNanos;
+             faltante -= intervaloEsperadoNanos) {
+            registrar(faltante);
+        }
+    }
+
+    public long quantidade() {
+        return total.sum();
+    }
+
+    public long somaMicros() {
+        return somaMicros.sum();
+    }
+
+    public long maximoMicros() {
+        return maximo.get();
+    }
+
+    /**
+     * Limite superior da faixa que contém o percentil p (0 a 100), em microssegundos.
+     */
+    public long percentilMicros(double p) {
+        long n = total.sum();
+        if (n == 0) return 0;
+        long posicao = Math.max(1, (long) Math.ceil(p / 100.0 * n));
+        long acumulado = 0;
+        for (int i = 0; i < faixas; i++) {
+            acumulado += contagens.get(i);
+            if (acumulado >= posicao) {
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    int indice(long micros) {
+        if (micros < sub) return (int) micros;
+        int expoente = 63 - Long.numberOfLeadingZeros(micros);
+        int faixa = (int) ((micros >>> (expoente - subBits)) & (sub - 1));
+        return (expoente - subBits + 1) * sub + faixa;
+    }
+
+    long limiteSuperior(int indice) {
+        if (indice < sub) return indice;
+        int expoente = indice / sub + subBits - 1;
+        int faixa = indice % sub;
+        return ((long) (sub + faixa + 1) << (expoente - subBits)) - 1;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.consultas;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Forma canônica de um SQL para agrupar execuções: sem comentários, literais de texto e
+ * números trocados por ?, listas IN de qualquer tamanho viram (?+) e espaços são colapsados.
+ * Também evita que valores (emails, nomes) apareçam em logs e no endpoint.
+ */
+public final class ImpressaoDigitalSql {
+
+    private static final Pattern COMENTARIO_BLOCO = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+    private static final Pattern COMENTARIO_LINHA = Pattern.compile("--[^\\n]*");
+    private static final Pattern TEXTO = Pattern.compile("'(?:[^']|'')*'");
+    // número isolado; não pega dígitos de identificadores como l1_0 ou usuario_id2
+    private static final Pattern NUMERO = Pattern.compile("(?<![\\w$.])-?\\d+(?:\\.\\d+)?(?![\\w$])");
+    // só listas de IN; VALUES (?, ?) mantém a aridade do INSERT
+    private static final Pattern LISTA = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+
+    private ImpressaoDigitalSql() {}
+
+    public static String de(String sql) {
+        if (sql == null) return "";
+        String s = COMENTARIO_BLOCO.matcher(sql).replaceAll(" ");
+        s = COMENTARIO_LINHA.matcher(s).replaceAll(" ");
+        s = TEXTO.matcher(s).replaceAll("?");
+        s = NUMERO.matcher(s).replaceAll("?");
+        s = LISTA.matcher(s).replaceAll("in (?+)");
+        s = ESPACOS.matcher(s).replaceAll(" ");
+        return s.trim().toLowerCase(Locale.ROOT);
+    }
+}
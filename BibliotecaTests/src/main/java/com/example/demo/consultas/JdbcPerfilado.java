@@ -0,0 +1,188 @@
+package com.example.demo.consultas;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Proxies JDBC que medem cada execução e entregam o resultado ao PerfiladorConsultas.
+ * Consultas são registradas quando o ResultSet (ou o Statement) fecha, já com as linhas lidas;
+ * o tempo registrado é só o da execução, não o da leitura das linhas.
+ */
+public final class JdbcPerfilado {
+
+    private JdbcPerfilado() {}
+
+    public static DataSource envolver(DataSource dataSource, PerfiladorConsultas perfilador) {
+        return proxy(DataSource.class, dataSource, (alvo, metodo, args) -> {
+            Object resultado = invocar(alvo, metodo, args);
+            return resultado instanceof Connection conexao ? conexao(conexao, perfilador) : resultado;
+        });
+    }
+
+    private static Connection conexao(Connection conexao, PerfiladorConsultas perfilador) {
+        return proxy(Connection.class, conexao, (alvo, metodo, args) -> {
+            Object resultado = invocar(alvo, metodo, args);
+            String nome = metodo.getName();
+            if (resultado instanceof CallableStatement cs && nome.equals("prepareCall")) {
+                return proxy(CallableStatement.class, cs, new ComandoPerfilado(cs, (String) args[0], perfilador));
+            }
+            if (resultado instanceof PreparedStatement ps && nome.equals("prepareStatement")) {
+                return proxy(PreparedStatement.class, ps, new ComandoPerfilado(ps, (String) args[0], perfilador));
+            }
+            if (resultado instanceof Statement st && nome.equals("createStatement")) {
+                return proxy(Statement.class, st, new ComandoPerfilado(st, null, perfilador));
+            }
+            return resultado;
+        });
+    }
+
+    /**
+     * Estado de um Statement: SQL preparado e a última consulta ainda não registrada.
+     */
+    private static final class ComandoPerfilado implements Manipulador {
+
+        private final Statement comando;
+        private final String sqlPreparado;
+        private final PerfiladorConsultas perfilador;
+        private Execucao pendente;
+
+        ComandoPerfilado(Statement comando, String sqlPreparado, PerfiladorConsultas perfilador) {
+            this.comando = comando;
+            this.sqlPreparado = sqlPreparado;
+            this.perfilador = perfilador;
+        }
+
+        @Override
+        public Object invocar(Object alvo, Method metodo, Object[] args) throws Throwable {
+            String nome = metodo.getName();
+            if (nome.startsWith("execute")) {
+                return executar(metodo, args, nome);
+            }
+            if (nome.equals("getResultSet")) {
+                Object resultado = JdbcPerfilado.invocar(alvo, metodo, args);
+                return resultado instanceof ResultSet rs && pendente != null ? resultSet(rs, pendente) : resultado;
+            }
+            if (nome.equals("close")) {
+                finalizarPendente();
+            }
+            return JdbcPerfilado.invocar(alvo, metodo, args);
+        }
+
+        private Object executar(Method metodo, Object[] args, String nome) throws Throwable {
+            finalizarPendente();
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : sqlPreparado;
+            String origem = OrigemConsulta.atual();
+            long inicio = System.nanoTime();
+            Object resultado = JdbcPerfilado.invocar(comando, metodo, args);
+            long nanos = System.nanoTime() - inicio;
+
+            if (resultado instanceof ResultSet rs) {
+                pendente = new Execucao(sql, nanos, origem);
+                return resultSet(rs, pendente);
+            }
+            if (nome.equals("execute") && Boolean.TRUE.equals(resultado)) {
+                // o ResultSet vem depois por getResultSet
+                pendente = new Execucao(sql, nanos, origem);
+                return resultado;
+            }
+            long linhas;
+            if (resultado instanceof Number n) {
+                linhas = n.longValue();
+            } else if (resultado instanceof int[] contagens) {
+                linhas = somar(contagens);
+            } else if (resultado instanceof long[] contagens) {
+                linhas = somar(contagens);
+            } else {
+                linhas = comando.getUpdateCount();
+            }
+            perfilador.registrar(sql, nanos, linhas, origem);
+            return resultado;
+        }
+
+        private void finalizarPendente() {
+            if (pendente != null) {
+                pendente.finalizar(perfilador);
+                pendente = null;
+            }
+        }
+
+        private ResultSet resultSet(ResultSet rs, Execucao execucao) {
+            return proxy(ResultSet.class, rs, (alvo, metodo, args) -> {
+                Object resultado = JdbcPerfilado.invocar(alvo, metodo, args);
+                String nome = metodo.getName();
+                if (nome.equals("next") && Boolean.TRUE.equals(resultado)) {
+                    execucao.linhas++;
+                } else if (nome.equals("close")) {
+                    execucao.finalizar(perfilador);
+                }
+                return resultado;
+            });
+        }
+    }
+
+    // usado só pela thread dona do Statement
+    private static final class Execucao {
+        final String sql;
+        final long nanos;
+        final String origem;
+        long linhas;
+        boolean registrada;
+
+        Execucao(String sql, long nanos, String origem) {
+            this.sql = sql;
+            this.nanos = nanos;
+            this.origem = origem;
+        }
+
+        void finalizar(PerfiladorConsultas perfilador) {
+            if (!registrada) {
+                registrada = true;
+                perfilador.registrar(sql, nanos, linhas, origem);
+            }
+        }
+    }
+
+    // valores negativos (SUCCESS_NO_INFO) não entram na soma
+    private static long somar(int[] contagens) {
+        long total = 0;
+        for (int c : contagens) total += Math.max(c, 0);
+        return total;
+    }
+
+    private static long somar(long[] contagens) {
+        long total = 0;
+        for (long c : contagens) total += Math.max(c, 0);
+        return total;
+    }
+
+    @FunctionalInterface
+    private interface Manipulador {
+        Object invocar(Object alvo, Method metodo, Object[] args) throws Throwable;
+    }
+
+    private static <T> T proxy(Class<T> tipo, T alvo, Manipulador manipulador) {
+        InvocationHandler handler = (p, metodo, args) -> switch (metodo.getName()) {
+            case "equals" -> args[0] == p;
+            case "hashCode" -> System.identityHashCode(p);
+            case "toString" -> "Perfilado[" + alvo + "]";
+            default -> manipulador.invocar(alvo, metodo, args);
+        };
+        return tipo.cast(Proxy.newProxyInstance(JdbcPerfilado.class.getClassLoader(), new Class<?>[]{tipo}, handler));
+    }
+
+    private static Object invocar(Object alvo, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(alvo, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.consultas;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Método de repositório em execução na thread (ex.: "EmprestimoRepository.findByUsuario"),
+ * para que o SQL gerado por ele seja atribuído a quem o disparou.
+ */
+public final class OrigemConsulta {
+
+    private static final ThreadLocal<String> ATUAL = new ThreadLocal<>();
+
+    private OrigemConsulta() {}
+
+    public static String atual() {
+        return ATUAL.get();
+    }
+
+    /**
+     * Advice adicionado ao proxy de cada repositório Spring Data; guarda a origem anterior para
+     * que chamadas aninhadas (default methods) restaurem o valor ao sair.
+     */
+    static MethodInterceptor interceptor(Class<?> repositorio) {
+        String nome = repositorio.getSimpleName();
+        return (MethodInvocation invocacao) -> {
+            String anterior = ATUAL.get();
+            ATUAL.set(nome + "." + invocacao.getMethod().getName());
+            try {
+                return invocacao.proceed();
+            } finally {
+                if (anterior == null) {
+                    ATUAL.remove();
+                } else {
+                    ATUAL.set(anterior);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.consultas;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Adiciona o interceptor de OrigemConsulta ao proxy de todo repositório Spring Data, com o nome
+ * da interface declarada (ex.: EmprestimoRepository), mesmo para métodos herdados de ListCrudRepository.
+ */
+public class OrigemConsultaPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String nome) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> fabrica) {
+            fabrica.addRepositoryFactoryCustomizer(f -> f.addRepositoryProxyPostProcessor((proxy, informacoes) ->
+                    proxy.addAdvice(OrigemConsulta.interceptor(informacoes.getRepositoryInterface()))));
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.demo.consultas;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Agrega as execuções de SQL por impressão digital (ImpressaoDigitalSql): histograma de latência,
+ * linhas lidas/alteradas e repositórios de origem. Execuções acima de biblioteca.consultas.limite-lento
+ * são registradas em log com o método de repositório que as disparou.
+ */
+@Component
+public class PerfiladorConsultas {
+
+    private static final Logger log = LoggerFactory.getLogger(PerfiladorConsultas.class);
+
+    // impressões além do máximo são somadas aqui, para um SQL montado com literais não esgotar a memória
+    static final String OUTRAS = "(outras)";
+    private static final int MAXIMO_ORIGENS = 10;
+
+    private final long limiteLentoNanos;
+    private final int maximoImpressoes;
+    private final Map<String, Agregado> agregados = new ConcurrentHashMap<>();
+    // SQL original -> impressão digital; o Hibernate repete os mesmos textos, então a regex roda uma vez por SQL
+    private final Map<String, String> impressoes = new ConcurrentHashMap<>();
+
+    public PerfiladorConsultas(@Value("${biblioteca.consultas.limite-lento:200ms}") Duration limiteLento,
+                               @Value("${biblioteca.consultas.maximo-impressoes:1000}") int maximoImpressoes) {
+        this.limiteLentoNanos = limiteLento.toNanos();
+        this.maximoImpressoes = maximoImpressoes;
+    }
+
+    public void registrar(String sql, long nanos, long linhas, String origem) {
+        String impressao = impressaoDe(sql);
+        Agregado agregado = agregados.get(impressao);
+        if (agregado == null) {
+            agregado = agregados.size() < maximoImpressoes
+                    ? agregados.computeIfAbsent(impressao, k -> new Agregado())
+                    : agregados.computeIfAbsent(OUTRAS, k -> new Agregado());
+        }
+        agregado.histograma.registrar(nanos);
+        agregado.linhas.add(Math.max(linhas, 0));
+        if (origem != null && agregado.origens.size() < MAXIMO_ORIGENS) {
+            agregado.origens.add(origem);
+        }
+
+        if (nanos >= limiteLentoNanos) {
+            log.warn("Consulta lenta: {} ms, {} linha(s), origem {}: {}", nanos / 1_000_000, linhas,
+                    origem != null ? origem : "desconhecida", impressao);
+        }
+    }
+
+    // mais custosas (tempo total) primeiro
+    public List<ResumoConsulta> resumo() {
+        return agregados.entrySet().stream()
+                .map(e -> e.getValue().resumir(e.getKey()))
+                .sorted(Comparator.comparingDouble(ResumoConsulta::tempoTotalMs).reversed())
+                .toList();
+    }
+
+    public void limpar() {
+        agregados.clear();
+    }
+
+    private String impressaoDe(String sql) {
+        String impressao = impressoes.get(sql);
+        if (impressao == null) {
+            impressao = ImpressaoDigitalSql.de(sql);
+            if (impressoes.size() < maximoImpressoes * 4) {
+                impressoes.put(sql, impressao);
+            }
+        }
+        return impressao;
+    }
+
+    private static final class Agregado {
+        final HistogramaLatencia histograma = new HistogramaLatencia();
+        final LongAdder linhas = new LongAdder();
+        final Set<String> origens = ConcurrentHashMap.newKeySet();
+
+        ResumoConsulta resumir(String sql) {
+            long execucoes = histograma.quantidade();
+            double totalMs = histograma.somaMicros() / 1000.0;
+            return new ResumoConsulta(sql, execucoes, linhas.sum(), totalMs,
+                    execucoes == 0 ? 0 : totalMs / execucoes,
+                    histograma.percentilMicros(50) / 1000.0,
+                    histograma.percentilMicros(95) / 1000.0,
+                    histograma.percentilMicros(99) / 1000.0,
+                    histograma.maximoMicros() / 1000.0,
+                    new TreeSet<>(origens));
+        }
+    }
+}
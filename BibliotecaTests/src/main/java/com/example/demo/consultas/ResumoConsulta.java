@@ -0,0 +1,10 @@
+package com.example.demo.consultas;
+
+import java.util.Set;
+
+/**
+ * Estatísticas acumuladas de uma impressão digital de SQL; tempos em milissegundos.
+ */
+public record ResumoConsulta(String sql, long execucoes, long linhas, double tempoTotalMs, double mediaMs,
+                             double p50Ms, double p95Ms, double p99Ms, double maximoMs, Set<String> origens) {
+}
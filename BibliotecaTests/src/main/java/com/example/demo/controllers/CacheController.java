@@ -0,0 +1,37 @@
+package com.example.demo.controllers;
+
+import com.example.demo.cache.CacheEntidade;
+import com.example.demo.cache.EstatisticasCache;
+import com.example.demo.cache.EstatisticasSegundoNivel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+public class CacheController {
+
+    private final List<CacheEntidade<?, ?>> caches;
+    // ausente no perfil memoria
+    private final ObjectProvider<EstatisticasSegundoNivel> segundoNivel;
+
+    public CacheController(List<CacheEntidade<?, ?>> caches, ObjectProvider<EstatisticasSegundoNivel> segundoNivel) {
+        this.caches = caches;
+        this.segundoNivel = segundoNivel;
+    }
+
+    // acertos, falhas, remoções e ocupação de cada cache de leitura e das regiões do Hibernate
+    // (-1 = valor não informado pelo provedor)
+    @GetMapping
+    public ResponseEntity<List<EstatisticasCache>> estatisticas() {
+        List<EstatisticasCache> resultado = new ArrayList<>();
+        caches.forEach(c -> resultado.add(c.estatisticas()));
+        segundoNivel.ifAvailable(s -> resultado.addAll(s.regioes()));
+        return ResponseEntity.ok(resultado);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.controllers;
+
+import com.example.demo.consultas.PerfiladorConsultas;
+import com.example.demo.consultas.ResumoConsulta;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/consultas")
+public class ConsultasController {
+
+    private final PerfiladorConsultas perfilador;
+
+    public ConsultasController(PerfiladorConsultas perfilador) {
+        this.perfilador = perfilador;
+    }
+
+    // SQL normalizado com execuções, linhas, p50/p95/p99 e repositórios de origem; mais custosos primeiro
+    @GetMapping
+    public ResponseEntity<List<ResumoConsulta>> resumo() {
+        return ResponseEntity.ok(perfilador.resumo());
+    }
+
+    // zera as estatísticas, ex.: antes de uma rodada de carga
+    @DeleteMapping
+    public ResponseEntity<Void> limpar() {
+        perfilador.limpar();
+        return ResponseEntity.noContent().build();
+    }
+}
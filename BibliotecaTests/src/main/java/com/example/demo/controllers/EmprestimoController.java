@@ -0,0 +1,62 @@
+package com.example.demo.controllers;
+
+import com.example.demo.dto.EmprestimoResumo;
+import com.example.demo.models.Emprestimo;
+import com.example.demo.services.EmprestimoPipeline;
+import com.example.demo.services.EmprestimoService;
+import com.example.demo.services.Pagina;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// respostas sempre em EmprestimoResumo, nunca a entidade (associações lazy)
+@RestController
+@RequestMapping("/api/emprestimos")
+public class EmprestimoController {
+
+    private final EmprestimoService emprestimoService;
+    // presente só com biblioteca.emprestimos.agrupamento.habilitado=true
+    private final ObjectProvider<EmprestimoPipeline> pipeline;
+
+    public EmprestimoController(EmprestimoService emprestimoService, ObjectProvider<EmprestimoPipeline> pipeline) {
+        this.emprestimoService = emprestimoService;
+        this.pipeline = pipeline;
+    }
+
+    // com o pipeline ativo o pedido entra no próximo commit agrupado; senão grava direto
+    @PostMapping
+    public CompletableFuture<ResponseEntity<EmprestimoResumo>> criar(@RequestBody Emprestimo emprestimo) {
+        EmprestimoPipeline agrupador = pipeline.getIfAvailable();
+        CompletableFuture<Emprestimo> criado = agrupador != null
+                ? agrupador.enviar(emprestimo)
+                : CompletableFuture.completedFuture(emprestimoService.criar(emprestimo));
+        return criado.thenApply(e -> ResponseEntity.status(HttpStatus.CREATED).body(EmprestimoResumo.de(e)));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<EmprestimoResumo> buscarPorId(@PathVariable Long id) {
+        return ResponseEntity.ok(emprestimoService.buscarResumoPorId(id));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<EmprestimoResumo>> buscarTodos() {
+        return ResponseEntity.ok(emprestimoService.buscarResumos());
+    }
+
+    // histórico paginado por cursor, mais recentes primeiro
+    @GetMapping("/usuario/{usuarioId}")
+    public ResponseEntity<Pagina<EmprestimoResumo>> buscarPorUsuario(@PathVariable Long usuarioId,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(defaultValue = "20") int tamanho) {
+        return ResponseEntity.ok(emprestimoService.buscarHistoricoUsuario(usuarioId, cursor, tamanho));
+    }
+
+    @GetMapping("/usuario/{usuarioId}/abertos")
+    public ResponseEntity<List<EmprestimoResumo>> buscarAbertos(@PathVariable Long usuarioId) {
+        return ResponseEntity.ok(emprestimoService.buscarAbertosUsuario(usuarioId));
+    }
+}
@@ -1,21 +1,48 @@
 package com.example.demo.controllers;
 
+import com.example.demo.dto.VersaoCatalogo;
 import com.example.demo.models.Livro;
+import com.example.demo.services.LivroLoteService;
 import com.example.demo.services.LivroService;
+import com.example.demo.services.Pagina;
+import com.example.demo.services.ResultadoLote;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/livros")
 public class LivroController {
 
+    // a cada quantos livros o buffer da exportação é enviado ao cliente
+    private static final int LINHAS_POR_FLUSH = 500;
+
     private final LivroService livroService;
+    private final LivroLoteService livroLoteService;
+    private final ObjectMapper objectMapper;
+    private final Duration tempoLimiteExportacao;
 
-    public LivroController(LivroService livroService) {
+    public LivroController(LivroService livroService, LivroLoteService livroLoteService, ObjectMapper objectMapper,
+                           @Value("${biblioteca.exportacao.tempo-limite:30m}") Duration tempoLimiteExportacao) {
         this.livroService = livroService;
+        this.livroLoteService = livroLoteService;
+        this.objectMapper = objectMapper;
+        this.tempoLimiteExportacao = tempoLimiteExportacao;
     }
 
     @PostMapping
@@ -23,14 +50,86 @@ public class LivroController {
         return new ResponseEntity<>(livroService.criar(livro), HttpStatus.CREATED);
     }
 
+    // importação em lote: itens inválidos são reportados individualmente, os demais são gravados
+    @PostMapping("/batch")
+    public ResponseEntity<ResultadoLote> criarEmLote(@RequestBody List<Livro> livros) {
+        return ResponseEntity.ok(livroLoteService.criarEmLote(livros));
+    }
+
+    // GET condicional: com If-None-Match, compara só a versão e responde 304 sem carregar o livro
     @GetMapping("/{id}")
-    public ResponseEntity<Livro> buscarPorId(@PathVariable Long id) {
-        return ResponseEntity.ok(livroService.buscarPorId(id));
+    public ResponseEntity<Livro> buscarPorId(@PathVariable Long id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Long versao = livroService.buscarVersao(id);
+            if (versao != null && request.checkNotModified(etag(versao))) {
+                return null; // 304 já preenchido por checkNotModified
+            }
+        }
+        Livro livro = livroService.buscarPorId(id);
+        // o corpo muda com o Accept (JSON, CBOR ou Smile; ver FormatosBinariosConfig)
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+        if (livro.getVersao() != null) {
+            resposta.eTag(etag(livro.getVersao()));
+        }
+        if (livro.getAtualizadoEm() != null) {
+            resposta.lastModified(livro.getAtualizadoEm());
+        }
+        return resposta.body(livro);
     }
 
+    // ETag da listagem = versão do catálogo (uma linha, lida antes da listagem); 304 evita buscar e serializar o catálogo
     @GetMapping
-    public ResponseEntity<List<Livro>> buscarTodos() {
-        return ResponseEntity.ok(livroService.buscarTodos());
+    public ResponseEntity<List<Livro>> buscarTodos(WebRequest request) {
+        VersaoCatalogo versao = livroService.buscarVersaoCatalogo();
+        if (request.checkNotModified(versao.etag())) {
+            return null;
+        }
+        // sem Last-Modified: uma remoção não avança a data e geraria 304 indevido em If-Modified-Since
+        return ResponseEntity.ok().eTag(versao.etag()).varyBy(HttpHeaders.ACCEPT).body(livroService.buscarTodos());
+    }
+
+    // listagem paginada por cursor; ordem = "id" (padrão) ou "titulo"
+    @GetMapping("/pagina")
+    public ResponseEntity<Pagina<Livro>> buscarPagina(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "20") int tamanho,
+                                                      @RequestParam(defaultValue = "id") String ordem) {
+        if ("titulo".equalsIgnoreCase(ordem)) {
+            return ResponseEntity.ok(livroService.buscarPaginaPorTitulo(cursor, tamanho));
+        }
+        return ResponseEntity.ok(livroService.buscarPagina(cursor, tamanho));
+    }
+
+    // exportação do catálogo em NDJSON (um livro por linha), escrita enquanto as linhas saem do banco.
+    // Só ela ganha o tempo limite longo; as demais requisições assíncronas ficam no padrão global
+    @GetMapping(value = "/exportar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> exportar(HttpServletResponse response) {
+        ObjectWriter escritor = objectMapper.writerFor(Livro.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        return new WebAsyncTask<>(tempoLimiteExportacao.toMillis(), () -> {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            try (JsonGenerator gerador = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+                gerador.setRootValueSeparator(null);
+                long[] escritos = {0};
+                livroService.exportarTodos(livro -> {
+                    try {
+                        escritor.writeValue(gerador, livro);
+                        gerador.writeRaw('\n');
+                        if (++escritos[0] % LINHAS_POR_FLUSH == 0) {
+                            gerador.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                gerador.flush();
+            }
+            return null;
+        });
+    }
+
+    private static String etag(Long versao) {
+        return "\"" + versao + "\"";
     }
 
     @PutMapping("/{id}")
@@ -43,9 +142,10 @@ public class LivroController {
         livroService.deletar(id);
         return ResponseEntity.noContent().build();
     }
-//
-//    @GetMapping("/autor")
-//    public ResponseEntity<List<Livro>> buscarPorAutor(@RequestParam String autor) {
-//        return ResponseEntity.ok(livroService.buscarPorAutorOrdenado(autor, true));
-//    }
+
+    @GetMapping("/autor")
+    public ResponseEntity<List<Livro>> buscarPorAutor(@RequestParam String autor,
+                                                      @RequestParam(defaultValue = "true") boolean ascendente) {
+        return ResponseEntity.ok(livroService.buscarPorAutorOrdenado(autor, ascendente));
+    }
 }
@@ -0,0 +1,28 @@
+package com.example.demo.dto;
+
+import com.example.demo.models.Emprestimo;
+
+import java.time.LocalDate;
+
+/**
+ * Visão plana de um empréstimo para leitura: traz os dados do usuário e do livro já resolvidos,
+ * montada direto pela consulta (join), sem entidades gerenciadas nem proxies lazy.
+ */
+public record EmprestimoResumo(Long id,
+                               LocalDate dataEmprestimo,
+                               LocalDate dataDevolucao,
+                               Long usuarioId,
+                               String usuarioNome,
+                               Long livroId,
+                               String livroTitulo,
+                               String livroAutor) {
+
+    /**
+     * Converte uma entidade cujas associações já estejam carregadas (ex.: logo após o save).
+     */
+    public static EmprestimoResumo de(Emprestimo e) {
+        return new EmprestimoResumo(e.getId(), e.getDataEmprestimo(), e.getDataDevolucao(),
+                e.getUsuario().getId(), e.getUsuario().getNome(),
+                e.getLivro().getId(), e.getLivro().getTitulo(), e.getLivro().getAutor());
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.dto;
+
+/**
+ * Versão do catálogo para o ETag da listagem de livros (linha de catalogo_versao). Toda inserção,
+ * atualização ou remoção de livro a incrementa na própria transação.
+ */
+public record VersaoCatalogo(Long versao) {
+
+    public String etag() {
+        return "\"catalogo-" + versao + "\"";
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.demo.dto;
+
+import java.time.Instant;
+
+/**
+ * Versão e data de gravação de um registro, sem o resto da entidade. Usado para conferir o
+ * snapshot do catálogo contra o banco: qualquer diferença em um dos dois força recarregar o registro.
+ */
+public record VersaoRegistro(Long id, Long versao, Instant atualizadoEm) {
+}
@@ -0,0 +1,114 @@
+package com.example.demo.metricas;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede toda operação de GenericService (criar, buscarPorId, buscarTodos, buscarPagina,
+ * atualizar, deletar) em todas as implementações.
+ *
+ * Métricas, com tags entidade/operacao:
+ * - biblioteca.servico.operacao (timer, tag resultado=sucesso|erro): latência e vazão;
+ * - biblioteca.servico.erros (contador, tag excecao): erros por tipo de exceção.
+ *
+ * Os medidores são criados na primeira chamada de cada operação e reaproveitados depois,
+ * então o caminho normal não aloca nem consulta o registry.
+ */
+@Aspect
+@Component
+public class MetricasServicoAspect {
+
+    public static final String METRICA_OPERACAO = "biblioteca.servico.operacao";
+    public static final String METRICA_ERROS = "biblioteca.servico.erros";
+
+    private final MeterRegistry registry;
+
+    // classe do serviço -> (nome do método -> medidores)
+    private final ClassValue<Map<String, MedidoresOperacao>> medidores = new ClassValue<>() {
+        @Override
+        protected Map<String, MedidoresOperacao> computeValue(Class<?> tipo) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    public MetricasServicoAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(* com.example.demo.services.GenericService.*(..))")
+    public Object medir(ProceedingJoinPoint pjp) throws Throwable {
+        MedidoresOperacao m = medidoresPara(AopUtils.getTargetClass(pjp.getTarget()), pjp.getSignature().getName());
+        long inicio = System.nanoTime();
+        try {
+            Object resultado = pjp.proceed();
+            m.sucesso.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            return resultado;
+        } catch (Throwable t) {
+            m.erro.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            m.contarErro(t.getClass());
+            throw t;
+        }
+    }
+
+    private MedidoresOperacao medidoresPara(Class<?> servico, String operacao) {
+        Map<String, MedidoresOperacao> porOperacao = medidores.get(servico);
+        MedidoresOperacao m = porOperacao.get(operacao);
+        if (m == null) {
+            m = porOperacao.computeIfAbsent(operacao, op -> new MedidoresOperacao(entidade(servico), op));
+        }
+        return m;
+    }
+
+    // LivroService -> "livro"
+    static String entidade(Class<?> servico) {
+        String nome = servico.getSimpleName();
+        if (nome.endsWith("Service")) {
+            nome = nome.substring(0, nome.length() - "Service".length());
+        }
+        return nome.toLowerCase(Locale.ROOT);
+    }
+
+    private final class MedidoresOperacao {
+        final String entidade;
+        final String operacao;
+        final Timer sucesso;
+        final Timer erro;
+        final Map<Class<?>, Counter> erros = new ConcurrentHashMap<>();
+
+        MedidoresOperacao(String entidade, String operacao) {
+            this.entidade = entidade;
+            this.operacao = operacao;
+            this.sucesso = timer("sucesso");
+            this.erro = timer("erro");
+        }
+
+        private Timer timer(String resultado) {
+            return Timer.builder(METRICA_OPERACAO)
+                    .description("Latência das operações dos serviços")
+                    .tag("entidade", entidade)
+                    .tag("operacao", operacao)
+                    .tag("resultado", resultado)
+                    .register(registry);
+        }
+
+        void contarErro(Class<?> excecao) {
+            erros.computeIfAbsent(excecao, tipo -> Counter.builder(METRICA_ERROS)
+                    .description("Erros das operações dos serviços por tipo de exceção")
+                    .tag("entidade", entidade)
+                    .tag("operacao", operacao)
+                    .tag("excecao", tipo.getSimpleName())
+                    .register(registry)).increment();
+        }
+    }
+}
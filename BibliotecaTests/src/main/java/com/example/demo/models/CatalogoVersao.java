@@ -0,0 +1,27 @@
+package com.example.demo.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Versão do catálogo de livros, usada no ETag da listagem: uma única linha (id 1), incrementada na
+ * mesma transação de cada escrita em livros (LivroRepository.incrementarVersaoCatalogo). Só cresce,
+ * então a mesma versão sempre corresponde ao mesmo catálogo.
+ */
+@Entity
+@Table(name = "catalogo_versao")
+public class CatalogoVersao {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    private Long versao;
+
+    public CatalogoVersao() {}
+
+    public Integer getId() { return id; }
+    public Long getVersao() { return versao; }
+}
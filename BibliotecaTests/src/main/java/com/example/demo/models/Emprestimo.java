@@ -4,11 +4,21 @@ import jakarta.persistence.*;
 import java.time.LocalDate;
 
 @Entity
+// tabela e índices (histórico por data, empréstimos em aberto) em db/migration
 @Table(name = "emprestimos")
+@NamedEntityGraph(name = Emprestimo.GRAFO_COMPLETO, attributeNodes = {
+        @NamedAttributeNode("usuario"),
+        @NamedAttributeNode("livro")
+})
 public class Emprestimo {
 
+    // plano de busca que traz usuário e livro no mesmo SELECT (evita N+1 ao percorrer a lista)
+    public static final String GRAFO_COMPLETO = "Emprestimo.completo";
+
+    // SEQUENCE (como em Livro) para que o commit agrupado de EmprestimoPipeline use batch JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "emprestimos_seq")
+    @SequenceGenerator(name = "emprestimos_seq", sequenceName = "emprestimos_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
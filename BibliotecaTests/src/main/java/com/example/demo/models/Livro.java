@@ -1,13 +1,25 @@
 package com.example.demo.models;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.time.Instant;
 
 @Entity
+// cache de segundo nível (região em SegundoNivelCacheConfig): findById de EmprestimoService sai da memória
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "livros")
+// tabela e índices (idx_livros_autor_titulo para findByAutorOrderByTitulo*) em db/migration
 @Table(name = "livros")
 public class Livro {
 
+    // SEQUENCE (em vez de IDENTITY) permite ao Hibernate agrupar INSERTs em batch JDBC;
+    // allocationSize igual a hibernate.jdbc.batch_size evita ida ao banco por id
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "livros_seq")
+    @SequenceGenerator(name = "livros_seq", sequenceName = "livros_seq", allocationSize = 50)
     private Long id;
 
     private String titulo;
@@ -15,6 +27,15 @@ public class Livro {
 //    private Int paginas;
     private int paginas;
 
+    // controle de concorrência otimista; também vira o ETag das respostas (somente leitura no JSON)
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long versao;
+
+    // Last-Modified das respostas
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant atualizadoEm;
+
     // Construtores
     public Livro() {}
 
@@ -27,6 +48,23 @@ public class Livro {
     public Livro(Object o, String titulo, Object o1, int i) {
     }
 
+    /**
+     * Cópia desanexada com os mesmos valores (caches de leitura entregam cópias).
+     */
+    public Livro copiar() {
+        Livro copia = new Livro(titulo, autor, paginas);
+        copia.id = id;
+        copia.versao = versao;
+        copia.atualizadoEm = atualizadoEm;
+        return copia;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void marcarAtualizacao() {
+        atualizadoEm = Instant.now();
+    }
+
     // Getters e Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -36,4 +74,8 @@ public class Livro {
     public void setAutor(String autor) { this.autor = autor; }
     public int getPaginas() { return paginas; }
     public void setPaginas(int paginas) { this.paginas = paginas; }
+    public Long getVersao() { return versao; }
+    public void setVersao(Long versao) { this.versao = versao; }
+    public Instant getAtualizadoEm() { return atualizadoEm; }
+    public void setAtualizadoEm(Instant atualizadoEm) { this.atualizadoEm = atualizadoEm; }
 }
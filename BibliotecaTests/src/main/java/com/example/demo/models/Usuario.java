@@ -1,11 +1,26 @@
 package com.example.demo.models;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.time.Instant;
+import java.util.Locale;
 
 @Entity
-@Table(name = "usuarios")
+// cache de segundo nível (região em SegundoNivelCacheConfig); muda pouco e é lido a cada empréstimo
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuarios")
+@Table(name = "usuarios", uniqueConstraints = {
+        // email único sem diferenciar maiúsculas; o índice da constraint atende a busca por email.
+        // UsuarioService traduz a violação em "Email já cadastrado."
+        @UniqueConstraint(name = Usuario.UK_EMAIL, columnNames = "email_normalizado")
+})
 public class Usuario {
 
+    public static final String UK_EMAIL = "uk_usuarios_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -14,11 +29,48 @@ public class Usuario {
 
     private String email;
 
+    // email em minúsculas e sem espaços nas pontas, mantido por setEmail
+    @Column(name = "email_normalizado")
+    private String emailNormalizado;
+
+    // controle de concorrência otimista; serve de ETag (somente leitura no JSON)
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long versao;
+
+    // data da última gravação (Last-Modified)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant atualizadoEm;
+
     public Usuario() {}
 
     public Usuario(String nome, String email) {
         this.nome = nome;
-        this.email = email;
+        setEmail(email);
+    }
+
+    /**
+     * Forma canônica usada na coluna email_normalizado (e nas buscas por email).
+     */
+    public static String normalizarEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Cópia desanexada com os mesmos valores (caches de leitura entregam cópias).
+     */
+    public Usuario copiar() {
+        Usuario copia = new Usuario(nome, email);
+        copia.id = id;
+        copia.versao = versao;
+        copia.atualizadoEm = atualizadoEm;
+        return copia;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void marcarAtualizacao() {
+        atualizadoEm = Instant.now();
     }
 
     // Getters e Setters
@@ -27,7 +79,14 @@ public class Usuario {
     public String getNome() { return nome; }
     public void setNome(String nome) { this.nome = nome; }
     public String getEmail() { return email; }
-    public void setEmail(String email) { this.email = email; }
+    public void setEmail(String email) {
+        this.email = email;
+        this.emailNormalizado = normalizarEmail(email);
+    }
+    public Long getVersao() { return versao; }
+    public void setVersao(Long versao) { this.versao = versao; }
+    public Instant getAtualizadoEm() { return atualizadoEm; }
+    public void setAtualizadoEm(Instant atualizadoEm) { this.atualizadoEm = atualizadoEm; }
 
     @Override
     public String toString() {
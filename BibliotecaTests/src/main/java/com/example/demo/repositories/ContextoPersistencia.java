@@ -0,0 +1,18 @@
+package com.example.demo.repositories;
+
+/**
+ * O que os serviços usam do contexto de persistência além dos repositórios. No perfil memoria não
+ * há contexto nem bean EntityManager: um serviço que passe a injetar EntityManager falha na subida.
+ */
+public interface ContextoPersistencia {
+
+    /**
+     * Tira a entidade do contexto, para leituras longas em cursor não acumularem entidades.
+     */
+    void desanexar(Object entidade);
+
+    /**
+     * Envia as escritas pendentes ao banco e esvazia o contexto (gravação em blocos).
+     */
+    void descarregar();
+}
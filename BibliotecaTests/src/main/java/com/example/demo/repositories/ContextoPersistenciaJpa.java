@@ -0,0 +1,30 @@
+package com.example.demo.repositories;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+/**
+ * ContextoPersistencia sobre o EntityManager compartilhado (o da transação corrente).
+ */
+@Repository
+@Profile("!memoria")
+public class ContextoPersistenciaJpa implements ContextoPersistencia {
+
+    private final EntityManager entityManager;
+
+    public ContextoPersistenciaJpa(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void desanexar(Object entidade) {
+        entityManager.detach(entidade);
+    }
+
+    @Override
+    public void descarregar() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
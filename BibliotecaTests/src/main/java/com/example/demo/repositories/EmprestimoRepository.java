@@ -1,18 +1,80 @@
-package com.example.demo.repositories;
-
-import com.example.demo.models.Emprestimo;
-import com.example.demo.models.Usuario;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;
-
-import java.util.List;
-
-@Repository
-public interface EmprestimoRepository extends JpaRepository<Emprestimo, Long> {
-
-    // Retorna todos os empréstimos de um usuário que ainda não foram devolvidos
-    List<Emprestimo> findByUsuarioAndDataDevolucaoIsNull(Usuario usuario);
-
-    // Retorna todos os empréstimos de um usuário (independente do status)
-    List<Emprestimo> findByUsuario(Usuario usuario);
-}
+package com.example.demo.repositories;
+
+import com.example.demo.dto.EmprestimoResumo;
+import com.example.demo.models.Emprestimo;
+import com.example.demo.models.Usuario;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface EmprestimoRepository extends ListCrudRepository<Emprestimo, Long> {
+
+    // Retorna todos os empréstimos de um usuário que ainda não foram devolvidos
+    List<Emprestimo> findByUsuarioAndDataDevolucaoIsNull(Usuario usuario);
+
+    // Conta os empréstimos em aberto sem carregar as entidades.
+    // Transação de escrita = sempre no primário: a checagem do limite não pode ler réplica atrasada
+    @Transactional
+    long countByUsuarioAndDataDevolucaoIsNull(Usuario usuario);
+
+    // Retorna todos os empréstimos de um usuário (independente do status), já com usuário e livro
+    @EntityGraph(Emprestimo.GRAFO_COMPLETO)
+    List<Emprestimo> findByUsuario(Usuario usuario);
+
+    // todos os empréstimos com usuário e livro carregados no mesmo SELECT
+    @Override
+    @EntityGraph(Emprestimo.GRAFO_COMPLETO)
+    List<Emprestimo> findAll();
+
+    // paginação por cursor (keyset): busca a partir do último id visto
+    @EntityGraph(Emprestimo.GRAFO_COMPLETO)
+    List<Emprestimo> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // ---------- Leitura em DTO (uma consulta com join, sem entidades gerenciadas) ----------
+
+    @Query("select new com.example.demo.dto.EmprestimoResumo(e.id, e.dataEmprestimo, e.dataDevolucao, " +
+           "u.id, u.nome, l.id, l.titulo, l.autor) " +
+           "from Emprestimo e join e.usuario u join e.livro l where e.id = :id")
+    Optional<EmprestimoResumo> buscarResumoPorId(@Param("id") Long id);
+
+    @Query("select new com.example.demo.dto.EmprestimoResumo(e.id, e.dataEmprestimo, e.dataDevolucao, " +
+           "u.id, u.nome, l.id, l.titulo, l.autor) " +
+           "from Emprestimo e join e.usuario u join e.livro l order by e.id")
+    List<EmprestimoResumo> buscarResumos();
+
+    // histórico do usuário, mais recentes primeiro (idx_emprestimos_usuario_data)
+    @Query("select new com.example.demo.dto.EmprestimoResumo(e.id, e.dataEmprestimo, e.dataDevolucao, " +
+           "u.id, u.nome, l.id, l.titulo, l.autor) " +
+           "from Emprestimo e join e.usuario u join e.livro l " +
+           "where e.usuario.id = :usuarioId order by e.dataEmprestimo desc, e.id desc")
+    List<EmprestimoResumo> buscarHistoricoUsuario(@Param("usuarioId") Long usuarioId, Limit limit);
+
+    // próxima página do histórico: registros anteriores a (data, id) do último item visto
+    @Query("select new com.example.demo.dto.EmprestimoResumo(e.id, e.dataEmprestimo, e.dataDevolucao, " +
+           "u.id, u.nome, l.id, l.titulo, l.autor) " +
+           "from Emprestimo e join e.usuario u join e.livro l " +
+           "where e.usuario.id = :usuarioId " +
+           "and (e.dataEmprestimo < :data or (e.dataEmprestimo = :data and e.id < :id)) " +
+           "order by e.dataEmprestimo desc, e.id desc")
+    List<EmprestimoResumo> buscarHistoricoUsuarioAntes(@Param("usuarioId") Long usuarioId,
+                                                       @Param("data") LocalDate data,
+                                                       @Param("id") Long id,
+                                                       Limit limit);
+
+    // empréstimos em aberto do usuário (índice parcial idx_emprestimos_abertos)
+    @Query("select new com.example.demo.dto.EmprestimoResumo(e.id, e.dataEmprestimo, e.dataDevolucao, " +
+           "u.id, u.nome, l.id, l.titulo, l.autor) " +
+           "from Emprestimo e join e.usuario u join e.livro l " +
+           "where e.usuario.id = :usuarioId and e.dataDevolucao is null " +
+           "order by e.dataEmprestimo desc, e.id desc")
+    List<EmprestimoResumo> buscarAbertosUsuario(@Param("usuarioId") Long usuarioId);
+}
@@ -1,13 +1,77 @@
 package com.example.demo.repositories;
 
+import com.example.demo.dto.VersaoCatalogo;
+import com.example.demo.dto.VersaoRegistro;
+import com.example.demo.models.CatalogoVersao;
 import com.example.demo.models.Livro;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface LivroRepository extends JpaRepository<Livro, Long> {
+public interface LivroRepository extends ListCrudRepository<Livro, Long> {
+    // cache de consultas do Hibernate: invalidado a cada escrita em livros
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Livro> findByAutorOrderByTituloAsc(String autor);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Livro> findByAutorOrderByTituloDesc(String autor);
+
+    // paginação por cursor (keyset): busca a partir do último id visto
+    List<Livro> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // paginação por cursor ordenada por título; id desempata títulos iguais
+    @Query("select l from Livro l where l.titulo > :titulo or (l.titulo = :titulo and l.id > :id) " +
+           "order by l.titulo asc, l.id asc")
+    List<Livro> buscarAposTitulo(@Param("titulo") String titulo, @Param("id") Long id, Limit limit);
+
+    List<Livro> findAllByOrderByTituloAscIdAsc(Limit limit);
+
+    // leitura em cursor para exportação: precisa de transação aberta e o Stream deve ser fechado
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select l from Livro l order by l.id asc")
+    Stream<Livro> streamTodosOrderByIdAsc();
+
+    // revalidação de ETag: só a coluna de versão, sem montar a entidade
+    @Query("select l.versao from Livro l where l.id = :id")
+    Optional<Long> buscarVersao(@Param("id") Long id);
+
+    // versão do catálogo (ETag da listagem): leitura de uma linha, sem agregar a tabela de livros
+    @Query("select new com.example.demo.dto.VersaoCatalogo(c.versao) from CatalogoVersao c " +
+           "where c.id = " + CatalogoVersao.ID)
+    VersaoCatalogo buscarVersaoCatalogo();
+
+    // toda escrita em livros chama na própria transação; a linha fica travada até o commit, então
+    // quem lê a versão nova também lê os livros gravados com ela
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Modifying
+    @Query("update CatalogoVersao c set c.versao = c.versao + 1 where c.id = " + CatalogoVersao.ID)
+    void incrementarVersaoCatalogo();
+
+    // conferência do snapshot do catálogo: versão e data por id na faixa de ids do snapshot, em páginas
+    // (keyset), sem montar entidades
+    @Query("select new com.example.demo.dto.VersaoRegistro(l.id, l.versao, l.atualizadoEm) from Livro l " +
+           "where l.id > :apos and l.id <= :ate order by l.id asc")
+    List<VersaoRegistro> buscarVersoesEntre(@Param("apos") Long apos, @Param("ate") Long ate, Limit limit);
+
+    // gravados depois do snapshot, mais recentes primeiro (índice em atualizado_em, V4)
+    @Query("select new com.example.demo.dto.VersaoRegistro(l.id, l.versao, l.atualizadoEm) from Livro l " +
+           "where l.atualizadoEm > :desde order by l.atualizadoEm desc")
+    List<VersaoRegistro> buscarVersoesAtualizadasApos(@Param("desde") Instant desde, Limit limit);
 }
@@ -1,14 +1,42 @@
 package com.example.demo.repositories;
 
+import com.example.demo.dto.VersaoRegistro;
 import com.example.demo.models.Usuario;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.List;
 
-public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
+public interface UsuarioRepository extends ListCrudRepository<Usuario, Long> {
+    // cache de consultas do Hibernate: invalidado a cada escrita em usuarios
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Usuario> findByEmail(String email);
 
+    // busca sem diferenciar maiúsculas, pelo índice de email_normalizado (use Usuario.normalizarEmail)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<Usuario> findByEmailNormalizado(String emailNormalizado);
+
     // utilitário opcional que pode ser útil em buscas e testes
     List<Usuario> findByNomeContainingIgnoreCase(String nome);
+
+    // paginação por cursor (keyset): busca a partir do último id visto
+    List<Usuario> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // conferência do snapshot do catálogo: versão e data por id na faixa de ids do snapshot, em páginas
+    // (keyset), sem montar entidades
+    @Query("select new com.example.demo.dto.VersaoRegistro(u.id, u.versao, u.atualizadoEm) from Usuario u " +
+           "where u.id > :apos and u.id <= :ate order by u.id asc")
+    List<VersaoRegistro> buscarVersoesEntre(@Param("apos") Long apos, @Param("ate") Long ate, Limit limit);
+
+    // gravados depois do snapshot, mais recentes primeiro (índice em atualizado_em, V4)
+    @Query("select new com.example.demo.dto.VersaoRegistro(u.id, u.versao, u.atualizadoEm) from Usuario u " +
+           "where u.atualizadoEm > :desde order by u.atualizadoEm desc")
+    List<VersaoRegistro> buscarVersoesAtualizadasApos(@Param("desde") Instant desde, Limit limit);
 }
@@ -0,0 +1,21 @@
+package com.example.demo.repositories.memoria;
+
+import com.example.demo.repositories.ContextoPersistencia;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Sem contexto de persistência: os repositórios em memória gravam na hora e entregam cópias.
+ */
+@Repository
+@Profile("memoria")
+public class ContextoPersistenciaMemoria implements ContextoPersistencia {
+
+    @Override
+    public void desanexar(Object entidade) {
+    }
+
+    @Override
+    public void descarregar() {
+    }
+}
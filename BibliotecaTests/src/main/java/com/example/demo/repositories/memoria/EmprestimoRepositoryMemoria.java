@@ -0,0 +1,173 @@
+package com.example.demo.repositories.memoria;
+
+import com.example.demo.dto.EmprestimoResumo;
+import com.example.demo.models.Emprestimo;
+import com.example.demo.models.Livro;
+import com.example.demo.models.Usuario;
+import com.example.demo.repositories.EmprestimoRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * EmprestimoRepository em memória. Índices: histórico por usuário em (data desc, id desc), como
+ * idx_emprestimos_usuario_data, e ids em aberto por usuário, como o índice parcial
+ * idx_emprestimos_abertos (a contagem do limite de empréstimos é o tamanho do conjunto).
+ * Usuário e livro são resolvidos na leitura, então o resumo reflete nome e título atuais.
+ */
+@Repository
+@Profile("memoria")
+public class EmprestimoRepositoryMemoria extends RepositorioMemoria<Emprestimo> implements EmprestimoRepository {
+
+    record ChaveHistorico(LocalDate data, long id) {
+        static final Comparator<ChaveHistorico> ORDEM = Comparator
+                .comparing(ChaveHistorico::data, Comparator.nullsLast(Comparator.<LocalDate>reverseOrder()))
+                .thenComparing(ChaveHistorico::id, Comparator.reverseOrder());
+
+        static ChaveHistorico de(Emprestimo e) {
+            return new ChaveHistorico(e.getDataEmprestimo(), e.getId());
+        }
+    }
+
+    private final UsuarioRepositoryMemoria usuarios;
+    private final LivroRepositoryMemoria livros;
+    private final ConcurrentHashMap<Long, ConcurrentSkipListSet<ChaveHistorico>> historico = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<Long>> abertos = new ConcurrentHashMap<>();
+
+    public EmprestimoRepositoryMemoria(UsuarioRepositoryMemoria usuarios, LivroRepositoryMemoria livros) {
+        super(Emprestimo.class);
+        this.usuarios = usuarios;
+        this.livros = livros;
+    }
+
+    @Override
+    protected Long id(Emprestimo emprestimo) {
+        return emprestimo.getId();
+    }
+
+    @Override
+    protected void definirId(Emprestimo emprestimo, Long id) {
+        emprestimo.setId(id);
+    }
+
+    @Override
+    protected Emprestimo copiar(Emprestimo e) {
+        Emprestimo copia = new Emprestimo(e.getUsuario(), e.getLivro(), e.getDataEmprestimo(), e.getDataDevolucao());
+        copia.setId(e.getId());
+        return copia;
+    }
+
+    @Override
+    protected Emprestimo ler(Emprestimo armazenado) {
+        Emprestimo copia = copiar(armazenado);
+        Usuario usuario = armazenado.getUsuario();
+        Livro livro = armazenado.getLivro();
+        if (usuario != null) copia.setUsuario(usuarios.findById(usuario.getId()).orElse(usuario));
+        if (livro != null) copia.setLivro(livros.findById(livro.getId()).orElse(livro));
+        return copia;
+    }
+
+    @Override
+    protected void prepararGravacao(Emprestimo emprestimo, Emprestimo atual) {
+        // usuario_id e livro_id são NOT NULL na tabela
+        if (emprestimo.getUsuario() == null || emprestimo.getUsuario().getId() == null
+                || emprestimo.getLivro() == null || emprestimo.getLivro().getId() == null) {
+            throw new DataIntegrityViolationException("Empréstimo sem usuário ou livro gravado.");
+        }
+    }
+
+    @Override
+    protected void indexar(Emprestimo antigo, Emprestimo novo) {
+        if (antigo != null) {
+            Long usuarioId = antigo.getUsuario().getId();
+            Set<ChaveHistorico> doUsuario = historico.get(usuarioId);
+            if (doUsuario != null) doUsuario.remove(ChaveHistorico.de(antigo));
+            Set<Long> emAberto = abertos.get(usuarioId);
+            if (emAberto != null) emAberto.remove(antigo.getId());
+        }
+        if (novo != null) {
+            Long usuarioId = novo.getUsuario().getId();
+            historico.computeIfAbsent(usuarioId, u -> new ConcurrentSkipListSet<>(ChaveHistorico.ORDEM))
+                    .add(ChaveHistorico.de(novo));
+            if (novo.getDataDevolucao() == null) {
+                abertos.computeIfAbsent(usuarioId, u -> ConcurrentHashMap.newKeySet()).add(novo.getId());
+            }
+        }
+    }
+
+    private Stream<Emprestimo> doHistorico(Long usuarioId, ChaveHistorico depoisDe) {
+        ConcurrentSkipListSet<ChaveHistorico> doUsuario = historico.get(usuarioId);
+        if (doUsuario == null) return Stream.empty();
+        Set<ChaveHistorico> chaves = depoisDe == null ? doUsuario : doUsuario.tailSet(depoisDe, false);
+        return chaves.stream().map(c -> registros.get(c.id()))
+                .filter(Objects::nonNull)
+                .filter(e -> usuarioId.equals(e.getUsuario().getId()));
+    }
+
+    private Stream<Emprestimo> emAberto(Long usuarioId) {
+        Set<Long> ids = abertos.getOrDefault(usuarioId, Set.of());
+        return ids.stream().map(registros::get)
+                .filter(Objects::nonNull)
+                .filter(e -> e.getDataDevolucao() == null && usuarioId.equals(e.getUsuario().getId()));
+    }
+
+    private List<EmprestimoResumo> resumir(Stream<Emprestimo> emprestimos) {
+        return emprestimos.map(e -> EmprestimoResumo.de(ler(e))).toList();
+    }
+
+    @Override
+    public List<Emprestimo> findByUsuarioAndDataDevolucaoIsNull(Usuario usuario) {
+        return lerTodos(emAberto(usuario.getId()));
+    }
+
+    @Override
+    public long countByUsuarioAndDataDevolucaoIsNull(Usuario usuario) {
+        return abertos.getOrDefault(usuario.getId(), Set.of()).size();
+    }
+
+    @Override
+    public List<Emprestimo> findByUsuario(Usuario usuario) {
+        return lerTodos(doHistorico(usuario.getId(), null));
+    }
+
+    @Override
+    public List<Emprestimo> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit) {
+        return lerTodos(registros.tailMap(id, false).values().stream().limit(maximo(limit)));
+    }
+
+    @Override
+    public Optional<EmprestimoResumo> buscarResumoPorId(Long id) {
+        return armazenado(id).map(e -> EmprestimoResumo.de(ler(e)));
+    }
+
+    @Override
+    public List<EmprestimoResumo> buscarResumos() {
+        return resumir(registros.values().stream());
+    }
+
+    @Override
+    public List<EmprestimoResumo> buscarHistoricoUsuario(Long usuarioId, Limit limit) {
+        return resumir(doHistorico(usuarioId, null).limit(maximo(limit)));
+    }
+
+    @Override
+    public List<EmprestimoResumo> buscarHistoricoUsuarioAntes(Long usuarioId, LocalDate data, Long id, Limit limit) {
+        return resumir(doHistorico(usuarioId, new ChaveHistorico(data, id)).limit(maximo(limit)));
+    }
+
+    @Override
+    public List<EmprestimoResumo> buscarAbertosUsuario(Long usuarioId) {
+        return resumir(emAberto(usuarioId).sorted(Comparator.comparing(ChaveHistorico::de, ChaveHistorico.ORDEM)));
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.demo.repositories.memoria;
+
+import com.example.demo.dto.VersaoCatalogo;
+import com.example.demo.dto.VersaoRegistro;
+import com.example.demo.models.Livro;
+import com.example.demo.repositories.LivroRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * LivroRepository em memória. Índices: (autor, título, id), como idx_livros_autor_titulo, e
+ * (título, id) para a paginação por título. A versão do catálogo é um contador, incrementado pelos
+ * serviços a cada escrita como a linha de catalogo_versao.
+ */
+@Repository
+@Profile("memoria")
+public class LivroRepositoryMemoria extends RepositorioMemoria<Livro> implements LivroRepository {
+
+    record ChaveTitulo(String titulo, long id) {
+        static final Comparator<ChaveTitulo> ORDEM = Comparator
+                .comparing(ChaveTitulo::titulo, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparingLong(ChaveTitulo::id);
+
+        static ChaveTitulo de(Livro livro) {
+            return new ChaveTitulo(livro.getTitulo(), livro.getId());
+        }
+    }
+
+    private final ConcurrentHashMap<String, ConcurrentSkipListSet<ChaveTitulo>> porAutor = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<ChaveTitulo> porTitulo = new ConcurrentSkipListSet<>(ChaveTitulo.ORDEM);
+    private final AtomicLong versaoCatalogo = new AtomicLong();
+
+    public LivroRepositoryMemoria() {
+        super(Livro.class);
+    }
+
+    @Override
+    protected Long id(Livro livro) {
+        return livro.getId();
+    }
+
+    @Override
+    protected void definirId(Livro livro, Long id) {
+        livro.setId(id);
+    }
+
+    @Override
+    protected Livro copiar(Livro livro) {
+        return livro.copiar();
+    }
+
+    @Override
+    protected void prepararGravacao(Livro livro, Livro atual) {
+        livro.setVersao(proximaVersao(livro.getVersao(), atual != null ? atual.getVersao() : null, livro.getId()));
+        livro.setAtualizadoEm(Instant.now());
+    }
+
+    @Override
+    protected void indexar(Livro antigo, Livro novo) {
+        if (antigo != null) {
+            ConcurrentSkipListSet<ChaveTitulo> doAutor = porAutor.get(antigo.getAutor() != null ? antigo.getAutor() : "");
+            if (doAutor != null) doAutor.remove(ChaveTitulo.de(antigo));
+            porTitulo.remove(ChaveTitulo.de(antigo));
+        }
+        if (novo != null) {
+            porAutor.computeIfAbsent(novo.getAutor() != null ? novo.getAutor() : "",
+                    a -> new ConcurrentSkipListSet<>(ChaveTitulo.ORDEM)).add(ChaveTitulo.de(novo));
+            porTitulo.add(ChaveTitulo.de(novo));
+        }
+    }
+
+    // percorre um índice conferindo o registro atual (uma escrita concorrente pode estar no meio da troca)
+    private List<Livro> resolver(Stream<ChaveTitulo> chaves, String autor, int limite) {
+        return lerTodos(chaves.map(c -> registros.get(c.id()))
+                .filter(Objects::nonNull)
+                .filter(l -> autor == null || autor.equals(l.getAutor()))
+                .limit(limite));
+    }
+
+    @Override
+    public List<Livro> findByAutorOrderByTituloAsc(String autor) {
+        NavigableSet<ChaveTitulo> doAutor = porAutor.get(autor);
+        return doAutor == null ? List.of() : resolver(doAutor.stream(), autor, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Livro> findByAutorOrderByTituloDesc(String autor) {
+        NavigableSet<ChaveTitulo> doAutor = porAutor.get(autor);
+        return doAutor == null ? List.of() : resolver(doAutor.descendingSet().stream(), autor, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Livro> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit) {
+        return lerTodos(registros.tailMap(id, false).values().stream().limit(maximo(limit)));
+    }
+
+    @Override
+    public List<Livro> buscarAposTitulo(String titulo, Long id, Limit limit) {
+        return resolver(porTitulo.tailSet(new ChaveTitulo(titulo, id), false).stream(), null, maximo(limit));
+    }
+
+    @Override
+    public List<Livro> findAllByOrderByTituloAscIdAsc(Limit limit) {
+        return resolver(porTitulo.stream(), null, maximo(limit));
+    }
+
+    @Override
+    public Stream<Livro> streamTodosOrderByIdAsc() {
+        return registros.values().stream().map(this::ler);
+    }
+
+    @Override
+    public Optional<Long> buscarVersao(Long id) {
+        return armazenado(id).map(Livro::getVersao);
+    }
+
+    @Override
+    public VersaoCatalogo buscarVersaoCatalogo() {
+        return new VersaoCatalogo(versaoCatalogo.get());
+    }
+
+    @Override
+    public void incrementarVersaoCatalogo() {
+        versaoCatalogo.incrementAndGet();
+    }
+
+    @Override
+    public List<VersaoRegistro> buscarVersoesEntre(Long apos, Long ate, Limit limit) {
+        if (apos >= ate) return List.of();
+        return registros.subMap(apos, false, ate, true).values().stream().limit(maximo(limit))
+                .map(r -> new VersaoRegistro(r.getId(), r.getVersao(), r.getAtualizadoEm())).toList();
+    }
+
+    // sem índice por data: varre todos, o que basta no perfil memoria
+    @Override
+    public List<VersaoRegistro> buscarVersoesAtualizadasApos(Instant desde, Limit limit) {
+        return registros.values().stream()
+                .filter(r -> r.getAtualizadoEm() != null && r.getAtualizadoEm().isAfter(desde))
+                .sorted(Comparator.comparing(Livro::getAtualizadoEm).reversed())
+                .limit(maximo(limit))
+                .map(r -> new VersaoRegistro(r.getId(), r.getVersao(), r.getAtualizadoEm())).toList();
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.demo.repositories.memoria;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Base dos repositórios em memória (perfil memoria): registros num mapa ordenado por id,
+ * leituras sem lock e escritas serializadas por repositório, o que mantém índices secundários e
+ * restrições de unicidade consistentes. Entra e sai sempre cópia, então alterar uma entidade
+ * devolvida não altera o armazenado sem save, como com entidades desanexadas do JPA.
+ *
+ * Não há transações (cada save vale na hora, sem rollback) nem chaves estrangeiras.
+ */
+public abstract class RepositorioMemoria<T> implements ListCrudRepository<T, Long> {
+
+    protected final ConcurrentSkipListMap<Long, T> registros = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequencia = new AtomicLong();
+    private final Object escrita = new Object();
+    private final Class<T> tipo;
+
+    protected RepositorioMemoria(Class<T> tipo) {
+        this.tipo = tipo;
+    }
+
+    protected abstract Long id(T entidade);
+
+    protected abstract void definirId(T entidade, Long id);
+
+    protected abstract T copiar(T entidade);
+
+    /**
+     * Chamado sob o lock de escrita antes de gravar: restrições, versão e datas. atual é null na inserção.
+     */
+    protected void prepararGravacao(T entidade, T atual) {
+    }
+
+    /**
+     * Chamado sob o lock de escrita depois de gravar ou remover, para manter índices secundários.
+     * antigo é null na inserção e novo é null na remoção.
+     */
+    protected void indexar(T antigo, T novo) {
+    }
+
+    /**
+     * Cópia entregue ao chamador; subclasses podem completar referências.
+     */
+    protected T ler(T armazenado) {
+        return copiar(armazenado);
+    }
+
+    // versionamento otimista no formato do @Version do JPA: 0 na inserção, +1 a cada gravação
+    protected Long proximaVersao(Long informada, Long atual, Long id) {
+        if (atual == null) return 0L;
+        if (informada != null && !informada.equals(atual)) {
+            throw new ObjectOptimisticLockingFailureException(tipo, id);
+        }
+        return atual + 1;
+    }
+
+    protected static int maximo(Limit limit) {
+        return limit == null || limit.isUnlimited() ? Integer.MAX_VALUE : limit.max();
+    }
+
+    protected Optional<T> armazenado(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(registros.get(id));
+    }
+
+    protected List<T> lerTodos(Stream<T> armazenados) {
+        return armazenados.filter(Objects::nonNull).map(this::ler).toList();
+    }
+
+    // ---------- Escrita ----------
+
+    @Override
+    public <S extends T> S save(S entidade) {
+        Objects.requireNonNull(entidade, "Entidade não pode ser null.");
+        synchronized (escrita) {
+            Long id = id(entidade);
+            T atual = id != null ? registros.get(id) : null;
+            prepararGravacao(entidade, atual);
+            if (atual == null) {
+                // id desconhecido é tratado como inserção, como o merge do JPA com id gerado
+                id = sequencia.incrementAndGet();
+                definirId(entidade, id);
+            }
+            T copia = copiar(entidade);
+            registros.put(id, copia);
+            indexar(atual, copia);
+        }
+        return entidade;
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entidades) {
+        List<S> salvas = new ArrayList<>();
+        entidades.forEach(e -> salvas.add(save(e)));
+        return salvas;
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        synchronized (escrita) {
+            T removido = registros.remove(id);
+            if (removido != null) {
+                indexar(removido, null);
+            }
+        }
+    }
+
+    @Override
+    public void delete(T entidade) {
+        deleteById(id(entidade));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entidades) {
+        entidades.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        registros.keySet().forEach(this::deleteById);
+    }
+
+    // ---------- Leitura ----------
+
+    @Override
+    public Optional<T> findById(Long id) {
+        return armazenado(id).map(this::ler);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return id != null && registros.containsKey(id);
+    }
+
+    @Override
+    public List<T> findAll() {
+        return lerTodos(registros.values().stream());
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<Long> ids) {
+        return lerTodos(StreamSupport.stream(ids.spliterator(), false).map(registros::get));
+    }
+
+    @Override
+    public long count() {
+        return registros.size();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.repositories.memoria;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Gerenciador de transações do perfil memoria: delimita as transações (propagação, readOnly,
+ * sincronizações) para @Transactional e TransactionTemplate funcionarem sem mudança, mas não
+ * guarda nada para desfazer; cada gravação dos repositórios em memória vale na hora.
+ */
+public class TransacaoMemoriaManager extends AbstractPlatformTransactionManager {
+
+    @Override
+    protected Object doGetTransaction() {
+        return new Object();
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transacao) {
+        return TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    @Override
+    protected void doBegin(Object transacao, TransactionDefinition definicao) {
+    }
+
+    @Override
+    protected Object doSuspend(Object transacao) {
+        return transacao;
+    }
+
+    @Override
+    protected void doResume(Object transacao, Object recursosSuspensos) {
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+    }
+}
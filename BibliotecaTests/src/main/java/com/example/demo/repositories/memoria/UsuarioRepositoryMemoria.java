@@ -0,0 +1,121 @@
+package com.example.demo.repositories.memoria;
+
+import com.example.demo.dto.VersaoRegistro;
+import com.example.demo.models.Usuario;
+import com.example.demo.repositories.UsuarioRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * UsuarioRepository em memória, com índices únicos por email e por email normalizado.
+ * Email normalizado repetido gera a mesma DataIntegrityViolationException (constraint
+ * uk_usuarios_email) que o banco, então UsuarioService responde "Email já cadastrado." igual.
+ */
+@Repository
+@Profile("memoria")
+public class UsuarioRepositoryMemoria extends RepositorioMemoria<Usuario> implements UsuarioRepository {
+
+    private final ConcurrentHashMap<String, Long> porEmail = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> porEmailNormalizado = new ConcurrentHashMap<>();
+
+    public UsuarioRepositoryMemoria() {
+        super(Usuario.class);
+    }
+
+    @Override
+    protected Long id(Usuario usuario) {
+        return usuario.getId();
+    }
+
+    @Override
+    protected void definirId(Usuario usuario, Long id) {
+        usuario.setId(id);
+    }
+
+    @Override
+    protected Usuario copiar(Usuario usuario) {
+        return usuario.copiar();
+    }
+
+    @Override
+    protected void prepararGravacao(Usuario usuario, Usuario atual) {
+        String normalizado = Usuario.normalizarEmail(usuario.getEmail());
+        Long dono = normalizado == null ? null : porEmailNormalizado.get(normalizado);
+        if (dono != null && (atual == null || !dono.equals(atual.getId()))) {
+            throw new DataIntegrityViolationException("Email duplicado: " + normalizado,
+                    new ConstraintViolationException("Violação de " + Usuario.UK_EMAIL, null, Usuario.UK_EMAIL));
+        }
+        usuario.setVersao(proximaVersao(usuario.getVersao(), atual != null ? atual.getVersao() : null, usuario.getId()));
+        usuario.setAtualizadoEm(Instant.now());
+    }
+
+    @Override
+    protected void indexar(Usuario antigo, Usuario novo) {
+        if (antigo != null && antigo.getEmail() != null) {
+            porEmail.remove(antigo.getEmail(), antigo.getId());
+            porEmailNormalizado.remove(Usuario.normalizarEmail(antigo.getEmail()), antigo.getId());
+        }
+        if (novo != null && novo.getEmail() != null) {
+            porEmail.put(novo.getEmail(), novo.getId());
+            porEmailNormalizado.put(Usuario.normalizarEmail(novo.getEmail()), novo.getId());
+        }
+    }
+
+    private Optional<Usuario> porIndice(ConcurrentHashMap<String, Long> indice, String chave,
+                                        Predicate<Usuario> confere) {
+        if (chave == null) return Optional.empty();
+        return armazenado(indice.get(chave)).filter(confere).map(this::ler);
+    }
+
+    @Override
+    public Optional<Usuario> findByEmail(String email) {
+        return porIndice(porEmail, email, u -> email.equals(u.getEmail()));
+    }
+
+    @Override
+    public Optional<Usuario> findByEmailNormalizado(String emailNormalizado) {
+        return porIndice(porEmailNormalizado, emailNormalizado,
+                u -> emailNormalizado.equals(Usuario.normalizarEmail(u.getEmail())));
+    }
+
+    // sem índice: substring não tem como ser indexada por hash (no banco também é varredura)
+    @Override
+    public List<Usuario> findByNomeContainingIgnoreCase(String nome) {
+        String trecho = nome.toLowerCase(Locale.ROOT);
+        return lerTodos(registros.values().stream()
+                .filter(u -> u.getNome() != null && u.getNome().toLowerCase(Locale.ROOT).contains(trecho)));
+    }
+
+    @Override
+    public List<Usuario> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit) {
+        return lerTodos(registros.tailMap(id, false).values().stream().limit(maximo(limit)));
+    }
+
+    @Override
+    public List<VersaoRegistro> buscarVersoesEntre(Long apos, Long ate, Limit limit) {
+        if (apos >= ate) return List.of();
+        return registros.subMap(apos, false, ate, true).values().stream().limit(maximo(limit))
+                .map(r -> new VersaoRegistro(r.getId(), r.getVersao(), r.getAtualizadoEm())).toList();
+    }
+
+    // sem índice por data: varre todos, o que basta no perfil memoria
+    @Override
+    public List<VersaoRegistro> buscarVersoesAtualizadasApos(Instant desde, Limit limit) {
+        return registros.values().stream()
+                .filter(r -> r.getAtualizadoEm() != null && r.getAtualizadoEm().isAfter(desde))
+                .sorted(Comparator.comparing(Usuario::getAtualizadoEm).reversed())
+                .limit(maximo(limit))
+                .map(r -> new VersaoRegistro(r.getId(), r.getVersao(), r.getAtualizadoEm())).toList();
+    }
+}
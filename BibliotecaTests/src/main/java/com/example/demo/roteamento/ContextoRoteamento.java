@@ -0,0 +1,49 @@
+package com.example.demo.roteamento;
+
+/**
+ * Estado de roteamento da thread atual.
+ *
+ * - escrita em andamento: dentro de criar/atualizar/deletar, toda leitura vai ao primário
+ *   (evita ler da réplica um registro que vai ser sobrescrito);
+ * - escreveu na requisição: com ler-proprias-escritas ligado, as leituras seguintes da mesma
+ *   requisição também vão ao primário, para enxergar o que acabou de ser gravado;
+ * - leitura no primário: leituras que alimentam um cache (buscarPorId, índice de autores, snapshot)
+ *   vão ao primário, senão uma réplica atrasada deixaria o registro velho no cache até o TTL.
+ *
+ * O filtro de requisição chama limpar() ao final de cada requisição.
+ */
+public final class ContextoRoteamento {
+
+    private static final ThreadLocal<int[]> NO_PRIMARIO = ThreadLocal.withInitial(() -> new int[1]);
+    private static final ThreadLocal<Boolean> ESCREVEU = new ThreadLocal<>();
+
+    private ContextoRoteamento() {}
+
+    public static void iniciarEscrita() {
+        NO_PRIMARIO.get()[0]++;
+    }
+
+    public static void terminarEscrita(boolean lerPropriasEscritas) {
+        NO_PRIMARIO.get()[0]--;
+        if (lerPropriasEscritas) {
+            ESCREVEU.set(Boolean.TRUE);
+        }
+    }
+
+    public static void iniciarLeituraNoPrimario() {
+        NO_PRIMARIO.get()[0]++;
+    }
+
+    public static void terminarLeituraNoPrimario() {
+        NO_PRIMARIO.get()[0]--;
+    }
+
+    public static boolean exigePrimario() {
+        return NO_PRIMARIO.get()[0] > 0 || ESCREVEU.get() != null;
+    }
+
+    public static void limpar() {
+        NO_PRIMARIO.remove();
+        ESCREVEU.remove();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.demo.roteamento;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Marca as escritas dos serviços (criar/atualizar/deletar, a importação em lote e o envio ao
+ * EmprestimoPipeline, que valida usuário e livro antes de enfileirar) para o roteamento: durante a
+ * escrita todas as leituras vão ao primário e, se configurado, a requisição passa a ler do primário
+ * até o fim. As buscas que alimentam o cache de leitura também vão ao primário, sem mudar o resto da
+ * requisição. Roda antes das transações dos serviços.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class EscritaNoPrimarioAspect {
+
+    private final boolean lerPropriasEscritas;
+
+    public EscritaNoPrimarioAspect(boolean lerPropriasEscritas) {
+        this.lerPropriasEscritas = lerPropriasEscritas;
+    }
+
+    @Around("execution(* com.example.demo.services.GenericService.criar(..)) || " +
+            "execution(* com.example.demo.services.GenericService.atualizar(..)) || " +
+            "execution(* com.example.demo.services.GenericService.deletar(..)) || " +
+            "execution(* com.example.demo.services.LivroLoteService.criarEmLote(..)) || " +
+            "execution(* com.example.demo.services.EmprestimoPipeline.enviar(..))")
+    public Object noPrimario(ProceedingJoinPoint pjp) throws Throwable {
+        ContextoRoteamento.iniciarEscrita();
+        try {
+            return pjp.proceed();
+        } finally {
+            ContextoRoteamento.terminarEscrita(lerPropriasEscritas);
+        }
+    }
+
+    @Around("execution(* com.example.demo.services.LivroService.buscarPorId(..)) || " +
+            "execution(* com.example.demo.services.LivroService.buscarPorAutorOrdenado(..)) || " +
+            "execution(* com.example.demo.services.UsuarioService.buscarPorId(..)) || " +
+            "execution(* com.example.demo.services.UsuarioService.buscarPorEmail(..))")
+    public Object leituraParaCache(ProceedingJoinPoint pjp) throws Throwable {
+        ContextoRoteamento.iniciarLeituraNoPrimario();
+        try {
+            return pjp.proceed();
+        } finally {
+            ContextoRoteamento.terminarLeituraNoPrimario();
+        }
+    }
+}
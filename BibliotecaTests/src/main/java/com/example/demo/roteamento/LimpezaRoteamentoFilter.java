@@ -0,0 +1,25 @@
+package com.example.demo.roteamento;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Encerra o "ler as próprias escritas" no fim da requisição: a thread volta ao pool sem estado.
+ */
+public class LimpezaRoteamentoFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ContextoRoteamento.limpar();
+        }
+    }
+}
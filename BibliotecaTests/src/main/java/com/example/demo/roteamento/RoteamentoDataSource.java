@@ -0,0 +1,39 @@
+package com.example.demo.roteamento;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Envia transações somente leitura (@Transactional(readOnly = true), finders do Spring Data) para
+ * a réplica e o resto para o primário. Deve ficar atrás de um LazyConnectionDataSourceProxy:
+ * o flag readOnly da transação só é publicado depois que o gerenciador abre a conexão.
+ */
+public class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+    public enum Destino { PRIMARIO, REPLICA }
+
+    public RoteamentoDataSource(DataSource primario, DataSource replica) {
+        setTargetDataSources(Map.of(Destino.PRIMARIO, primario, Destino.REPLICA, replica));
+        setDefaultTargetDataSource(primario);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return destinoAtual();
+    }
+
+    public static Destino destinoAtual() {
+        return destino(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+
+    /**
+     * Destino de uma transação, conforme o flag readOnly e o estado de roteamento da thread.
+     */
+    public static Destino destino(boolean somenteLeitura) {
+        return somenteLeitura && !ContextoRoteamento.exigePrimario() ? Destino.REPLICA : Destino.PRIMARIO;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.roteamento;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JpaTransactionManager em que as transações roteadas à réplica não alimentam o cache de segundo
+ * nível: a sessão lê do cache (CacheMode.GET), mas não guarda o que carregou. Uma listagem lida da
+ * réplica atrasada deixaria a linha velha no L2 até o TTL, e buscarPorId, mesmo indo ao primário,
+ * a encontraria lá antes de consultar o banco.
+ */
+public class RoteamentoTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        if (RoteamentoDataSource.destino(definition.isReadOnly()) == RoteamentoDataSource.Destino.REPLICA) {
+            sessao().setCacheMode(CacheMode.GET);
+        }
+    }
+
+    // com open-in-view a sessão sobrevive à transação: a próxima, talvez de escrita, volta ao normal
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        Session sessao = sessao();
+        if (sessao != null && sessao.isOpen() && sessao.getCacheMode() == CacheMode.GET) {
+            sessao.setCacheMode(CacheMode.NORMAL);
+        }
+        super.doCleanupAfterCompletion(transaction);
+    }
+
+    private Session sessao() {
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+        return holder != null ? holder.getEntityManager().unwrap(Session.class) : null;
+    }
+}
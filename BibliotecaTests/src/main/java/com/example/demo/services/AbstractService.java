@@ -1,11 +1,115 @@
 package com.example.demo.services;
 
+import com.example.demo.cache.CacheEntidade;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 public abstract class AbstractService<T, ID> implements GenericService<T, ID> {
 
+    public static final int TAMANHO_PAGINA_PADRAO = 20;
+    public static final int TAMANHO_PAGINA_MAXIMO = 100;
+
+    // separador entre as partes do cursor (não aparece em títulos/ids)
+    private static final String SEPARADOR_CURSOR = "\u0000";
+
+    // cache de leitura por id; null = serviço sem cache
+    private CacheEntidade<ID, T> cache;
+
     public <R> R checkNotNull(Optional<R> entity, String msg) {
         return entity.orElseThrow(() -> new RuntimeException(msg));
     }
 
+    /**
+     * Liga o cache de leitura deste serviço. Injetado quando existe um bean CacheEntidade&lt;ID, T&gt;.
+     */
+    @Autowired(required = false)
+    public void setCache(CacheEntidade<ID, T> cache) {
+        this.cache = cache;
+    }
+
+    public CacheEntidade<ID, T> getCache() {
+        return cache;
+    }
+
+    /**
+     * Busca pelo cache (se houver) e, em caso de falha, pelo carregador.
+     */
+    protected T buscarComCache(ID id, Function<ID, T> carregador) {
+        return cache == null ? carregador.apply(id) : cache.obter(id, carregador);
+    }
+
+    /**
+     * Deve ser chamado por toda escrita (atualizar/deletar) sobre a entidade.
+     */
+    protected void invalidarCache(ID id) {
+        if (cache != null && id != null) {
+            cache.invalidar(id);
+        }
+    }
+
+    /**
+     * Ajusta o tamanho pedido para o intervalo [1, TAMANHO_PAGINA_MAXIMO]; valores <= 0 usam o padrão.
+     */
+    protected int limitarTamanhoPagina(int tamanho) {
+        if (tamanho <= 0) return TAMANHO_PAGINA_PADRAO;
+        return Math.min(tamanho, TAMANHO_PAGINA_MAXIMO);
+    }
+
+    /**
+     * Monta a página a partir de uma consulta que buscou tamanho + 1 registros:
+     * o registro extra só indica que existe próxima página.
+     */
+    protected <R> Pagina<R> montarPagina(List<R> encontrados, int tamanho, Function<R, String> cursorDe) {
+        if (encontrados.size() <= tamanho) {
+            return new Pagina<>(encontrados, null);
+        }
+        List<R> itens = encontrados.subList(0, tamanho);
+        return new Pagina<>(List.copyOf(itens), cursorDe.apply(itens.get(tamanho - 1)));
+    }
+
+    /**
+     * Codifica as chaves do último registro em um token opaco (Base64 URL-safe).
+     */
+    protected String codificarCursor(Object... partes) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < partes.length; i++) {
+            if (i > 0) sb.append(SEPARADOR_CURSOR);
+            sb.append(partes[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica um cursor gerado por codificarCursor. Lança IllegalArgumentException se for inválido.
+     */
+    protected String[] decodificarCursor(String cursor, int partes) {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] valores = texto.split(SEPARADOR_CURSOR, -1);
+            if (valores.length != partes) {
+                throw new IllegalArgumentException("Cursor inválido.");
+            }
+            return valores;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido.");
+        }
+    }
+
+    /**
+     * Cursor simples ordenado por id: null/vazio começa do início.
+     */
+    protected Long idDoCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) return 0L;
+        try {
+            return Long.parseLong(decodificarCursor(cursor, 1)[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido.");
+        }
+    }
 }
@@ -0,0 +1,256 @@
+package com.example.demo.services;
+
+import com.example.demo.models.Emprestimo;
+import com.example.demo.models.Usuario;
+import com.example.demo.repositories.EmprestimoRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Criação de empréstimos com commit agrupado (group commit). Os pedidos são validados na thread
+ * de quem chama (EmprestimoService.preparar) e enfileirados; uma única thread gravadora junta até
+ * tamanhoLote pedidos ou o que chegar dentro da janela e grava todos numa só transação.
+ *
+ * O limite de empréstimos abertos continua valendo: a gravadora segura as travas dos usuários do
+ * lote (as mesmas de EmprestimoService.criar) da contagem até o commit. Cada futuro termina com o
+ * próprio empréstimo ou com o próprio erro.
+ *
+ * Opcional: ativado por biblioteca.emprestimos.agrupamento.habilitado=true.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "biblioteca.emprestimos.agrupamento.habilitado", havingValue = "true")
+public class EmprestimoPipeline {
+
+    private final EmprestimoService emprestimoService;
+    private final EmprestimoRepository emprestimoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanhoLote;
+    private final long janelaNanos;
+    private final BlockingQueue<Pedido> fila;
+
+    private volatile boolean ativo;
+    private Thread gravadora;
+
+    public EmprestimoPipeline(EmprestimoService emprestimoService,
+                              EmprestimoRepository emprestimoRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${biblioteca.emprestimos.agrupamento.tamanho-lote:64}") int tamanhoLote,
+                              @Value("${biblioteca.emprestimos.agrupamento.janela:5ms}") Duration janela,
+                              @Value("${biblioteca.emprestimos.agrupamento.capacidade-fila:10000}") int capacidadeFila) {
+        if (tamanhoLote <= 0) {
+            throw new IllegalArgumentException("Tamanho do lote deve ser positivo.");
+        }
+        this.emprestimoService = emprestimoService;
+        this.emprestimoRepository = emprestimoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanhoLote = tamanhoLote;
+        this.janelaNanos = janela.toNanos();
+        this.fila = new LinkedBlockingQueue<>(capacidadeFila);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        ativo = true;
+        gravadora = new Thread(this::executar, "emprestimos-group-commit");
+        gravadora.setDaemon(true);
+        gravadora.start();
+    }
+
+    /**
+     * Para de aceitar pedidos e espera a gravadora esvaziar a fila. O que ainda estiver na fila depois
+     * disso é gravado aqui, ou falha se a gravadora não terminou no prazo; nenhum futuro fica pendente.
+     */
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        ativo = false;
+        if (gravadora != null) {
+            gravadora.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        List<Pedido> restantes = new ArrayList<>();
+        fila.drainTo(restantes);
+        if (restantes.isEmpty()) return;
+        if (gravadora != null && gravadora.isAlive()) {
+            log.warn("Gravadora de empréstimos não terminou no prazo; {} pedidos falham", restantes.size());
+            falhar(restantes, new IllegalStateException("Criação de empréstimos encerrada."));
+        } else {
+            processarOuFalhar(restantes);
+        }
+    }
+
+    /**
+     * Enfileira um pedido de empréstimo. Erros de validação (usuário/livro inexistente, datas)
+     * e o limite de empréstimos abertos chegam como falha do futuro.
+     */
+    public CompletableFuture<Emprestimo> enviar(Emprestimo emprestimo) {
+        Emprestimo preparado;
+        try {
+            preparado = emprestimoService.preparar(emprestimo);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        Pedido pedido = new Pedido(preparado, new CompletableFuture<>());
+        // a segunda checagem cobre o parar() entre a primeira e o offer: a gravadora pode já ter
+        // esvaziado a fila e saído. Se o remove falhar, alguém já tirou o pedido e vai completá-lo
+        boolean enfileirado = ativo && fila.offer(pedido);
+        if (enfileirado && !ativo && fila.remove(pedido)) {
+            enfileirado = false;
+        }
+        if (!enfileirado) {
+            // parado ou fila cheia: grava direto, com commit próprio
+            try {
+                return CompletableFuture.completedFuture(emprestimoService.criar(preparado));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return pedido.futuro();
+    }
+
+    private void executar() {
+        List<Pedido> lote = new ArrayList<>(tamanhoLote);
+        while (ativo || !fila.isEmpty()) {
+            try {
+                Pedido primeiro = fila.poll(100, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                lote.add(primeiro);
+                long prazo = System.nanoTime() + janelaNanos;
+                while (lote.size() < tamanhoLote) {
+                    if (fila.drainTo(lote, tamanhoLote - lote.size()) > 0) {
+                        continue;
+                    }
+                    long resta = prazo - System.nanoTime();
+                    Pedido proximo = resta > 0 ? fila.poll(resta, TimeUnit.NANOSECONDS) : null;
+                    if (proximo == null) {
+                        break;
+                    }
+                    lote.add(proximo);
+                }
+                processar(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // sem gravadora: novos pedidos gravam direto e os da fila falham junto com o lote
+                ativo = false;
+                fila.drainTo(lote);
+                falhar(lote, e);
+                return;
+            } catch (RuntimeException e) {
+                log.error("Falha inesperada no lote de empréstimos", e);
+                falhar(lote, e);
+            }
+            lote = new ArrayList<>(tamanhoLote);
+        }
+        // pedidos que entraram enquanto a gravadora encerrava
+        fila.drainTo(lote);
+        if (!lote.isEmpty()) {
+            processarOuFalhar(lote);
+        }
+    }
+
+    private void processarOuFalhar(List<Pedido> lote) {
+        try {
+            processar(lote);
+        } catch (RuntimeException e) {
+            log.error("Falha inesperada no lote de empréstimos", e);
+            falhar(lote, e);
+        }
+    }
+
+    // futuros já completados não mudam
+    private static void falhar(List<Pedido> pedidos, Throwable erro) {
+        pedidos.forEach(p -> p.futuro().completeExceptionally(erro));
+    }
+
+    /**
+     * Aplica o limite por usuário em ordem de chegada e grava os aceitos numa transação.
+     * Futuros só são completados depois do commit e da liberação das travas.
+     */
+    void processar(List<Pedido> lote) {
+        Map<Long, List<Pedido>> porUsuario = new LinkedHashMap<>();
+        // conjunto por identidade: usuários na mesma listra dividem a trava.
+        // Sem risco de deadlock: criar nunca segura mais de uma trava ao mesmo tempo.
+        Set<ReentrantLock> travas = new LinkedHashSet<>();
+        for (Pedido pedido : lote) {
+            Long usuarioId = pedido.emprestimo().getUsuario().getId();
+            porUsuario.computeIfAbsent(usuarioId, id -> new ArrayList<>()).add(pedido);
+            travas.add(emprestimoService.travaPara(usuarioId));
+        }
+
+        Map<Pedido, Object> resultados = new IdentityHashMap<>();
+        travas.forEach(ReentrantLock::lock);
+        try {
+            List<Pedido> aceitos = new ArrayList<>(lote.size());
+            for (List<Pedido> pedidos : porUsuario.values()) {
+                Usuario usuario = pedidos.get(0).emprestimo().getUsuario();
+                long abertos = emprestimoRepository.countByUsuarioAndDataDevolucaoIsNull(usuario);
+                for (Pedido pedido : pedidos) {
+                    if (abertos >= EmprestimoService.LIMITE_EMPRESTIMOS_ABERTOS) {
+                        resultados.put(pedido, new IllegalArgumentException("Usuário já possui 5 empréstimos abertos."));
+                    } else {
+                        aceitos.add(pedido);
+                        if (pedido.emprestimo().getDataDevolucao() == null) abertos++;
+                    }
+                }
+            }
+            gravar(aceitos, resultados);
+        } catch (RuntimeException e) {
+            lote.forEach(p -> resultados.putIfAbsent(p, e));
+        } finally {
+            travas.forEach(ReentrantLock::unlock);
+        }
+
+        for (Pedido pedido : lote) {
+            Object resultado = resultados.get(pedido);
+            if (resultado instanceof Throwable erro) {
+                pedido.futuro().completeExceptionally(erro);
+            } else {
+                pedido.futuro().complete((Emprestimo) resultado);
+            }
+        }
+    }
+
+    /**
+     * Um commit para o lote inteiro. Se o banco rejeitar o lote, regrava item a item
+     * para que só o pedido problemático falhe.
+     */
+    private void gravar(List<Pedido> aceitos, Map<Pedido, Object> resultados) {
+        if (aceitos.isEmpty()) return;
+        List<Emprestimo> emprestimos = aceitos.stream().map(Pedido::emprestimo).toList();
+        try {
+            List<Emprestimo> salvos = transactionTemplate.execute(status -> emprestimoRepository.saveAll(emprestimos));
+            for (int i = 0; i < aceitos.size(); i++) {
+                resultados.put(aceitos.get(i), salvos.get(i));
+            }
+            log.debug("Lote de {} empréstimos gravado em um commit", aceitos.size());
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gravar lote de {} empréstimos, gravando um a um: {}", aceitos.size(), e.getMessage());
+            for (Pedido pedido : aceitos) {
+                pedido.emprestimo().setId(null); // id da sequence atribuído na tentativa que falhou
+                try {
+                    resultados.put(pedido, transactionTemplate.execute(status -> emprestimoRepository.save(pedido.emprestimo())));
+                } catch (RuntimeException erroItem) {
+                    resultados.put(pedido, erroItem);
+                }
+            }
+        }
+    }
+
+    record Pedido(Emprestimo emprestimo, CompletableFuture<Emprestimo> futuro) {
+    }
+}
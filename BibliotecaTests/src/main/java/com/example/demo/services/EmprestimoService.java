@@ -1,22 +1,30 @@
 package com.example.demo.services;
 
+import com.example.demo.dto.EmprestimoResumo;
 import com.example.demo.models.Emprestimo;
 import com.example.demo.models.Livro;
 import com.example.demo.models.Usuario;
 import com.example.demo.repositories.EmprestimoRepository;
 import com.example.demo.repositories.LivroRepository;
 import com.example.demo.repositories.UsuarioRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class EmprestimoService extends AbstractService<Emprestimo, Long> {
 
+    public static final int LIMITE_EMPRESTIMOS_ABERTOS = 5;
+
     private final EmprestimoRepository emprestimoRepository;
     private final UsuarioRepository usuarioRepository;
     private final LivroRepository livroRepository;
+    private final TravasPorUsuario travas = new TravasPorUsuario(256);
 
     public EmprestimoService(EmprestimoRepository emprestimoRepository,
                              UsuarioRepository usuarioRepository,
@@ -28,6 +36,46 @@ public class EmprestimoService extends AbstractService<Emprestimo, Long> {
 
     @Override
     public Emprestimo criar(Emprestimo emprestimo) {
+        Emprestimo preparado = preparar(emprestimo);
+        Usuario usuario = preparado.getUsuario();
+
+        // regra: usuário não pode ter mais de 5 empréstimos abertos.
+        // contagem e gravação sob a trava do usuário, para que duas requisições simultâneas
+        // não passem ambas pela verificação. O save faz commit antes da trava ser liberada,
+        // então este método não deve rodar dentro de uma transação externa.
+        ReentrantLock trava = travaPara(usuario.getId());
+        trava.lock();
+        try {
+            checarLimiteAbertos(usuario);
+            return emprestimoRepository.save(preparado);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Valida o pedido como criar, inclusive o limite de empréstimos abertos, sem gravar nem travar
+     * o usuário: o resultado vale só para o momento da consulta. Usado pelo aquecimento do JIT.
+     */
+    @Transactional(readOnly = true)
+    public Emprestimo validar(Emprestimo emprestimo) {
+        Emprestimo preparado = preparar(emprestimo);
+        checarLimiteAbertos(preparado.getUsuario());
+        return preparado;
+    }
+
+    private void checarLimiteAbertos(Usuario usuario) {
+        long abertos = emprestimoRepository.countByUsuarioAndDataDevolucaoIsNull(usuario);
+        if (abertos >= LIMITE_EMPRESTIMOS_ABERTOS) {
+            throw new IllegalArgumentException("Usuário já possui 5 empréstimos abertos.");
+        }
+    }
+
+    /**
+     * Valida o pedido e resolve usuário, livro e datas, sem gravar nem checar o limite
+     * de empréstimos abertos. Usado por criar e por EmprestimoPipeline.
+     */
+    Emprestimo preparar(Emprestimo emprestimo) {
         // valida usuário
         Usuario usuario = checkNotNull(usuarioRepository.findById(emprestimo.getUsuario().getId()),
                 "Usuário não encontrado");
@@ -36,12 +84,6 @@ public class EmprestimoService extends AbstractService<Emprestimo, Long> {
         Livro livro = checkNotNull(livroRepository.findById(emprestimo.getLivro().getId()),
                 "Livro não encontrado");
 
-        // regra: usuário não pode ter mais de 5 empréstimos abertos
-        List<Emprestimo> abertos = emprestimoRepository.findByUsuarioAndDataDevolucaoIsNull(usuario);
-        if (abertos.size() >= 5) {
-            throw new IllegalArgumentException("Usuário já possui 5 empréstimos abertos.");
-        }
-
         // valida datas
         LocalDate dataEmprestimo = emprestimo.getDataEmprestimo();
         LocalDate dataDevolucao = emprestimo.getDataDevolucao();
@@ -53,20 +95,33 @@ public class EmprestimoService extends AbstractService<Emprestimo, Long> {
         emprestimo.setUsuario(usuario);
         emprestimo.setLivro(livro);
         emprestimo.setDataEmprestimo(dataEmprestimo);
+        return emprestimo;
+    }
 
-        return emprestimoRepository.save(emprestimo);
+    // trava do usuário compartilhada entre criar e EmprestimoPipeline
+    ReentrantLock travaPara(Long usuarioId) {
+        return travas.travaPara(usuarioId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Emprestimo buscarPorId(Long id) {
         return checkNotNull(emprestimoRepository.findById(id), "Empréstimo não encontrado");
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Emprestimo> buscarTodos() {
         return emprestimoRepository.findAll();
     }
 
+    @Override
+    public Pagina<Emprestimo> buscarPagina(String cursor, int tamanho) {
+        int limite = limitarTamanhoPagina(tamanho);
+        List<Emprestimo> encontrados = emprestimoRepository.findByIdGreaterThanOrderByIdAsc(idDoCursor(cursor), Limit.of(limite + 1));
+        return montarPagina(encontrados, limite, e -> codificarCursor(e.getId()));
+    }
+
     @Override
     public Emprestimo atualizar(Long id, Emprestimo emprestimo) {
         Emprestimo existente = buscarPorId(id);
@@ -98,8 +153,51 @@ public class EmprestimoService extends AbstractService<Emprestimo, Long> {
         emprestimoRepository.deleteById(id);
     }
 
-    // consulta extra: empréstimos de um usuário
+    // consulta extra: todos os empréstimos de um usuário, sem limite.
+    // Para a API use buscarHistoricoUsuario (paginado).
+    @Transactional(readOnly = true)
     public List<Emprestimo> buscarPorUsuario(Usuario usuario) {
         return emprestimoRepository.findByUsuario(usuario);
     }
+
+    // ---------- Leitura para a API (DTO montado por uma única consulta) ----------
+
+    public EmprestimoResumo buscarResumoPorId(Long id) {
+        return checkNotNull(emprestimoRepository.buscarResumoPorId(id), "Empréstimo não encontrado");
+    }
+
+    public List<EmprestimoResumo> buscarResumos() {
+        return emprestimoRepository.buscarResumos();
+    }
+
+    /**
+     * Histórico de empréstimos do usuário, mais recentes primeiro, paginado por cursor
+     * (dataEmprestimo, id). Cursor null/vazio começa da primeira página.
+     */
+    public Pagina<EmprestimoResumo> buscarHistoricoUsuario(Long usuarioId, String cursor, int tamanho) {
+        int limite = limitarTamanhoPagina(tamanho);
+        List<EmprestimoResumo> encontrados;
+        if (cursor == null || cursor.isBlank()) {
+            encontrados = emprestimoRepository.buscarHistoricoUsuario(usuarioId, Limit.of(limite + 1));
+        } else {
+            String[] partes = decodificarCursor(cursor, 2);
+            LocalDate data;
+            Long id;
+            try {
+                data = LocalDate.parse(partes[0]);
+                id = Long.parseLong(partes[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Cursor inválido.");
+            }
+            encontrados = emprestimoRepository.buscarHistoricoUsuarioAntes(usuarioId, data, id, Limit.of(limite + 1));
+        }
+        return montarPagina(encontrados, limite, e -> codificarCursor(e.dataEmprestimo(), e.id()));
+    }
+
+    /**
+     * Empréstimos em aberto do usuário (no máximo LIMITE_EMPRESTIMOS_ABERTOS), mais recentes primeiro.
+     */
+    public List<EmprestimoResumo> buscarAbertosUsuario(Long usuarioId) {
+        return emprestimoRepository.buscarAbertosUsuario(usuarioId);
+    }
 }
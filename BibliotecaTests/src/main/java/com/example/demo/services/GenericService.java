@@ -6,6 +6,7 @@ public interface GenericService<T, ID> {
     T criar(T entity);
     T buscarPorId(ID id);
     List<T> buscarTodos();
+    Pagina<T> buscarPagina(String cursor, int tamanho);
     T atualizar(ID id, T entity);
     void deletar(ID id);
 }
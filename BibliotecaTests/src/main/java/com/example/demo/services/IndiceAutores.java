@@ -0,0 +1,126 @@
+package com.example.demo.services;
+
+import com.example.demo.cache.CacheEntidade;
+import com.example.demo.models.Livro;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+/**
+ * Índice em memória de livros por autor, ordenado por título (pt-BR) e id.
+ * Cada autor é carregado do banco na primeira consulta (fora de qualquer lock) e depois mantido de
+ * forma incremental pelas escritas de LivroService. Os autores carregados ficam num CacheEntidade:
+ * limitados por tamanho (LRU) e por TTL, que também limita o atraso em relação a escritas de outras
+ * instâncias. Autores sem livros não são guardados. Leituras não bloqueiam.
+ */
+class IndiceAutores {
+
+    private record Entrada(CollationKey chaveTitulo, long id, Livro livro) {
+    }
+
+    private static final Comparator<Entrada> ORDEM = Comparator
+            .comparing(Entrada::chaveTitulo)
+            .thenComparingLong(Entrada::id);
+
+    private static final class IndiceAutor {
+        final String autor;
+        final NavigableSet<Entrada> porTitulo = new ConcurrentSkipListSet<>(ORDEM);
+        final Map<Long, Entrada> porId = new ConcurrentHashMap<>();
+
+        IndiceAutor(String autor) {
+            this.autor = autor;
+        }
+
+        void adicionar(Entrada entrada) {
+            remover(entrada.id());
+            porId.put(entrada.id(), entrada);
+            porTitulo.add(entrada);
+        }
+
+        void remover(long id) {
+            Entrada antiga = porId.remove(id);
+            if (antiga != null) {
+                porTitulo.remove(antiga);
+            }
+        }
+    }
+
+    private final Collator collator;
+    private final Function<String, List<Livro>> carregador;
+    private final CacheEntidade<String, IndiceAutor> autores;
+
+    IndiceAutores(Function<String, List<Livro>> carregador, int maximoAutores, Duration ttl) {
+        this.carregador = carregador;
+        this.autores = new CacheEntidade<>("indice-autores", maximoAutores, ttl);
+        this.collator = Collator.getInstance(Locale.of("pt", "BR"));
+        this.collator.setStrength(Collator.PRIMARY);
+    }
+
+    List<Livro> buscar(String autor, boolean ascendente) {
+        IndiceAutor indice = autores.obter(autor, this::carregar);
+        if (indice == null) return List.of();
+        NavigableSet<Entrada> ordem = ascendente ? indice.porTitulo : indice.porTitulo.descendingSet();
+        List<Livro> livros = new ArrayList<>(ordem.size());
+        for (Entrada entrada : ordem) {
+            livros.add(entrada.livro());
+        }
+        return Collections.unmodifiableList(livros);
+    }
+
+    /**
+     * Registra a versão atual do livro (após criar/atualizar). Só mexe em autores já carregados;
+     * se o autor mudou, o livro sai do índice do autor anterior.
+     */
+    void registrar(Livro livro) {
+        if (livro == null || livro.getId() == null) return;
+        Entrada entrada = criarEntrada(livro);
+        autores.alterarTodos(indice -> {
+            if (indice.autor.equals(livro.getAutor())) {
+                indice.adicionar(entrada);
+            } else {
+                indice.remover(entrada.id());
+            }
+        });
+    }
+
+    void remover(Long id) {
+        if (id == null) return;
+        autores.alterarTodos(indice -> indice.remover(id));
+    }
+
+    int autoresCarregados() {
+        return autores.tamanho();
+    }
+
+    // null quando o autor não tem livros: nada a guardar
+    private IndiceAutor carregar(String autor) {
+        List<Livro> livros = carregador.apply(autor);
+        if (livros.isEmpty()) return null;
+        IndiceAutor indice = new IndiceAutor(autor);
+        for (Livro livro : livros) {
+            indice.adicionar(criarEntrada(livro));
+        }
+        return indice;
+    }
+
+    // guarda uma cópia: a entidade original pode ser alterada por quem a recebeu
+    private Entrada criarEntrada(Livro livro) {
+        Livro copia = new Livro(livro.getTitulo(), livro.getAutor(), livro.getPaginas());
+        copia.setId(livro.getId());
+        copia.setVersao(livro.getVersao());
+        copia.setAtualizadoEm(livro.getAtualizadoEm());
+        String titulo = livro.getTitulo() == null ? "" : livro.getTitulo();
+        return new Entrada(collator.getCollationKey(titulo), livro.getId(), copia);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.services;
+
+import com.example.demo.models.Livro;
+import com.example.demo.repositories.ContextoPersistencia;
+import com.example.demo.repositories.LivroRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Importação de livros em lote. Cada item passa pela mesma validação de LivroService.criar;
+ * os válidos são gravados em blocos, cada bloco em sua própria transação, usando batch JDBC.
+ */
+@Slf4j
+@Service
+public class LivroLoteService {
+
+    // múltiplo de hibernate.jdbc.batch_size; limita o tamanho do contexto de persistência
+    public static final int TAMANHO_BLOCO = 500;
+
+    private final LivroService livroService;
+    private final LivroRepository livroRepository;
+    private final ContextoPersistencia contextoPersistencia;
+    private final TransactionTemplate transactionTemplate;
+
+    public LivroLoteService(LivroService livroService,
+                            LivroRepository livroRepository,
+                            ContextoPersistencia contextoPersistencia,
+                            PlatformTransactionManager transactionManager) {
+        this.livroService = livroService;
+        this.livroRepository = livroRepository;
+        this.contextoPersistencia = contextoPersistencia;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public ResultadoLote criarEmLote(List<Livro> livros) {
+        if (livros == null) {
+            throw new IllegalArgumentException("Lista de livros não pode ser null.");
+        }
+        log.info("Importando lote de {} livros", livros.size());
+
+        List<ResultadoLote.ErroItem> erros = new ArrayList<>();
+        List<Livro> bloco = new ArrayList<>(TAMANHO_BLOCO);
+        List<Integer> indicesBloco = new ArrayList<>(TAMANHO_BLOCO);
+        int inseridos = 0;
+
+        for (int i = 0; i < livros.size(); i++) {
+            Livro livro = livros.get(i);
+            try {
+                livroService.validar(livro);
+            } catch (IllegalArgumentException e) {
+                erros.add(new ResultadoLote.ErroItem(i, e.getMessage()));
+                continue;
+            }
+            // id vindo do cliente seria tratado como merge (SELECT + UPDATE); o lote só insere
+            livro.setId(null);
+            bloco.add(livro);
+            indicesBloco.add(i);
+
+            if (bloco.size() == TAMANHO_BLOCO) {
+                inseridos += gravarBloco(bloco, indicesBloco, erros);
+                bloco = new ArrayList<>(TAMANHO_BLOCO);
+                indicesBloco = new ArrayList<>(TAMANHO_BLOCO);
+            }
+        }
+        if (!bloco.isEmpty()) {
+            inseridos += gravarBloco(bloco, indicesBloco, erros);
+        }
+
+        erros.sort((a, b) -> Integer.compare(a.indice(), b.indice()));
+        log.info("Lote concluído: {} inseridos, {} com erro", inseridos, erros.size());
+        return new ResultadoLote(livros.size(), inseridos, erros);
+    }
+
+    /**
+     * Grava um bloco numa transação. Se o banco rejeitar o bloco, todos os itens dele
+     * são reportados com o erro.
+     */
+    private int gravarBloco(List<Livro> bloco, List<Integer> indices, List<ResultadoLote.ErroItem> erros) {
+        int gravados = bloco.size();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                livroRepository.saveAll(bloco);
+                livroRepository.incrementarVersaoCatalogo();
+                contextoPersistencia.descarregar();
+            });
+            bloco.forEach(livroService::registrarNoIndice);
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gravar bloco de {} livros: {}", bloco.size(), e.getMessage());
+            for (Integer indice : indices) {
+                erros.add(new ResultadoLote.ErroItem(indice, "Falha ao gravar: " + e.getMessage()));
+            }
+            gravados = 0;
+        }
+        return gravados;
+    }
+}
@@ -1,11 +1,26 @@
 package com.example.demo.services;
 
+import com.example.demo.cache.CacheEntidade;
+import com.example.demo.dto.VersaoCatalogo;
 import com.example.demo.models.Livro;
+import com.example.demo.repositories.ContextoPersistencia;
 import com.example.demo.repositories.LivroRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -17,46 +32,189 @@ public class LivroService extends AbstractService<Livro, Long> {
 
     private final LivroRepository livroRepository;
 
+    @Autowired
+    private ContextoPersistencia contextoPersistencia;
+
+    private final IndiceAutores indiceAutores;
+
+    // escrita no livro e na versão do catálogo numa transação só; cache e índice mudam depois do commit
+    private final TransactionOperations transacoes;
+
     public LivroService(LivroRepository livroRepository) {
+        this(livroRepository, TransactionOperations.withoutTransaction(), 1000, Duration.ofMinutes(10));
+    }
+
+    /**
+     * maximoAutores e ttl limitam o índice por autor: quantos autores ficam carregados (LRU) e por quanto tempo.
+     */
+    @Autowired
+    public LivroService(LivroRepository livroRepository,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${biblioteca.indice-autores.tamanho-maximo:1000}") int maximoAutores,
+                        @Value("${biblioteca.indice-autores.ttl:10m}") Duration ttl) {
+        this(livroRepository, new TransactionTemplate(transactionManager), maximoAutores, ttl);
+    }
+
+    public LivroService(LivroRepository livroRepository, TransactionOperations transacoes,
+                        int maximoAutores, Duration ttl) {
         this.livroRepository = livroRepository;
+        this.transacoes = transacoes;
+        this.indiceAutores = new IndiceAutores(livroRepository::findByAutorOrderByTituloAsc, maximoAutores, ttl);
     }
 
     @Override
     public Livro criar(Livro livro) {
         log.info("Tentando criar livro: {}", livro.getTitulo());
 
-        if (livro.getTitulo() == null || livro.getTitulo().isBlank() ||
+        validar(livro);
+
+        Livro salvo = transacoes.execute(status -> {
+            Livro gravado = livroRepository.save(livro);
+            livroRepository.incrementarVersaoCatalogo();
+            return gravado;
+        });
+        indiceAutores.registrar(salvo);
+        log.info("Livro criado com sucesso: {}", salvo.getId());
+        return salvo;
+    }
+
+    /**
+     * Regras de criação de livro, compartilhadas com a importação em lote.
+     */
+    void validar(Livro livro) {
+        if (livro == null ||
+            livro.getTitulo() == null || livro.getTitulo().isBlank() ||
             livro.getAutor() == null || livro.getAutor().isBlank() ||
             livro.getPaginas() <= 0) {
             log.warn("Falha ao criar livro. Dados inválidos: {}", livro);
             throw new IllegalArgumentException("Título, autor e páginas devem ser válidos.");
         }
-
-        Livro salvo = livroRepository.save(livro);
-        log.info("Livro criado com sucesso: {}", salvo.getId());
-        return salvo;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Livro buscarPorId(Long id) {
         log.debug("Buscando livro por id: {}", id);
-        return checkNotNull(livroRepository.findById(id), "Livro não encontrado");
+        return buscarComCache(id, chave -> checkNotNull(livroRepository.findById(chave), "Livro não encontrado"));
+    }
+
+    /**
+     * Versão atual do livro para revalidar ETag: vem do cache se o livro estiver lá (sem contar
+     * nas estatísticas do cache), senão de uma consulta só da coluna versao.
+     */
+    public Long buscarVersao(Long id) {
+        CacheEntidade<Long, Livro> cache = getCache();
+        if (cache != null) {
+            Optional<Livro> emCache = cache.espiar(id);
+            if (emCache.isPresent()) {
+                return emCache.get().getVersao();
+            }
+        }
+        return checkNotNull(livroRepository.buscarVersao(id), "Livro não encontrado");
+    }
+
+    /**
+     * Versão do catálogo (ETag da listagem); deve ser lida antes da listagem, para que uma escrita
+     * entre as duas leituras resulte num ETag antigo (revalidado depois) e nunca num ETag novo com dados antigos.
+     */
+    public VersaoCatalogo buscarVersaoCatalogo() {
+        return livroRepository.buscarVersaoCatalogo();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Livro> buscarTodos() {
         log.debug("Buscando todos os livros");
         return livroRepository.findAll();
     }
 
+    @Override
+    public Pagina<Livro> buscarPagina(String cursor, int tamanho) {
+        int limite = limitarTamanhoPagina(tamanho);
+        log.debug("Buscando página de livros por id (cursor={}, tamanho={})", cursor, limite);
+        List<Livro> encontrados = livroRepository.findByIdGreaterThanOrderByIdAsc(idDoCursor(cursor), Limit.of(limite + 1));
+        return montarPagina(encontrados, limite, l -> codificarCursor(l.getId()));
+    }
+
+    /**
+     * Página de livros ordenada por título (id desempata títulos iguais).
+     */
+    public Pagina<Livro> buscarPaginaPorTitulo(String cursor, int tamanho) {
+        int limite = limitarTamanhoPagina(tamanho);
+        log.debug("Buscando página de livros por título (cursor={}, tamanho={})", cursor, limite);
+        List<Livro> encontrados;
+        if (cursor == null || cursor.isBlank()) {
+            encontrados = livroRepository.findAllByOrderByTituloAscIdAsc(Limit.of(limite + 1));
+        } else {
+            String[] partes = decodificarCursor(cursor, 2);
+            Long id;
+            try {
+                id = Long.parseLong(partes[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Cursor inválido.");
+            }
+            encontrados = livroRepository.buscarAposTitulo(partes[0], id, Limit.of(limite + 1));
+        }
+        return montarPagina(encontrados, limite, l -> codificarCursor(l.getTitulo(), l.getId()));
+    }
+
+    /**
+     * Livros do autor ordenados por título, servidos pelo índice em memória
+     * (o autor é carregado do banco só na primeira consulta). Os livros retornados
+     * são cópias compartilhadas do índice e não devem ser alterados.
+     */
+    public List<Livro> buscarPorAutorOrdenado(String autor, boolean ascendente) {
+        if (autor == null || autor.isBlank()) {
+            throw new IllegalArgumentException("Autor deve ser informado.");
+        }
+        log.debug("Buscando livros do autor {} (ascendente={})", autor, ascendente);
+        return indiceAutores.buscar(autor, ascendente);
+    }
+
+    /**
+     * Mantém o índice de autores para livros gravados fora de criar (ex.: importação em lote).
+     */
+    void registrarNoIndice(Livro livro) {
+        indiceAutores.registrar(livro);
+    }
+
+    /**
+     * Percorre todos os livros em cursor, entregando um por vez ao consumidor.
+     * Cada livro é desanexado após o uso, então o contexto de persistência não cresce.
+     * Retorna a quantidade exportada.
+     */
+    @Transactional(readOnly = true)
+    public long exportarTodos(Consumer<Livro> consumidor) {
+        log.info("Iniciando exportação de livros");
+        long total = 0;
+        try (Stream<Livro> livros = livroRepository.streamTodosOrderByIdAsc()) {
+            Iterator<Livro> it = livros.iterator();
+            while (it.hasNext()) {
+                Livro livro = it.next();
+                consumidor.accept(livro);
+                contextoPersistencia.desanexar(livro);
+                total++;
+            }
+        }
+        log.info("Exportação de livros concluída: {} registros", total);
+        return total;
+    }
+
     @Override
     public Livro atualizar(Long id, Livro livro) {
         log.info("Atualizando livro id: {}", id);
-        Livro existente = buscarPorId(id);
+        // lê direto do banco: a gravação parte da linha atual (e da versao dela), não do cache
+        Livro existente = checkNotNull(livroRepository.findById(id), "Livro não encontrado");
         existente.setTitulo(livro.getTitulo());
         existente.setAutor(livro.getAutor());
         existente.setPaginas(livro.getPaginas());
-        Livro atualizado = livroRepository.save(existente);
+        Livro atualizado = transacoes.execute(status -> {
+            Livro gravado = livroRepository.save(existente);
+            livroRepository.incrementarVersaoCatalogo();
+            return gravado;
+        });
+        invalidarCache(id);
+        indiceAutores.registrar(atualizado);
         log.info("Livro atualizado com sucesso: {}", atualizado.getId());
         return atualizado;
     }
@@ -64,7 +222,13 @@ public class LivroService extends AbstractService<Livro, Long> {
     @Override
     public void deletar(Long id) {
         log.warn("Deletando livro id: {}", id);
-        livroRepository.deleteById(id);
+        transacoes.executeWithoutResult(status -> {
+            livroRepository.deleteById(id);
+            livroRepository.incrementarVersaoCatalogo();
+        });
+        // depois do commit: invalidar antes deixaria uma busca concorrente recolocar a linha no cache
+        invalidarCache(id);
+        indiceAutores.remover(id);
         log.info("Livro deletado com sucesso: {}", id);
     }
 }
@@ -0,0 +1,9 @@
+package com.example.demo.services;
+
+import java.util.List;
+
+/**
+ * Página de uma listagem por cursor (keyset). proximoCursor é null na última página.
+ */
+public record Pagina<T>(List<T> itens, String proximoCursor) {
+}
@@ -0,0 +1,13 @@
+package com.example.demo.services;
+
+import java.util.List;
+
+/**
+ * Resultado de uma importação em lote: quantos itens chegaram, quantos foram gravados
+ * e o erro de cada item rejeitado (indice = posição na lista recebida).
+ */
+public record ResultadoLote(int recebidos, int inseridos, List<ErroItem> erros) {
+
+    public record ErroItem(int indice, String mensagem) {
+    }
+}
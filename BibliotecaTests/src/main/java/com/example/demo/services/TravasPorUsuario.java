@@ -0,0 +1,30 @@
+package com.example.demo.services;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Travas listradas por id de usuário: operações do mesmo usuário são serializadas,
+ * usuários diferentes só competem quando caem na mesma listra.
+ */
+class TravasPorUsuario {
+
+    private final ReentrantLock[] listras;
+    private final int mascara;
+
+    TravasPorUsuario(int quantidade) {
+        if (Integer.bitCount(quantidade) != 1) {
+            throw new IllegalArgumentException("Quantidade de travas deve ser potência de 2.");
+        }
+        this.listras = new ReentrantLock[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            listras[i] = new ReentrantLock();
+        }
+        this.mascara = quantidade - 1;
+    }
+
+    ReentrantLock travaPara(Long usuarioId) {
+        int h = Long.hashCode(usuarioId);
+        h ^= (h >>> 16); // espalha ids sequenciais entre as listras
+        return listras[h & mascara];
+    }
+}
@@ -1,11 +1,18 @@
 package com.example.demo.services;
 
+import com.example.demo.cache.CacheEntidade;
 import com.example.demo.models.Usuario;
 import com.example.demo.repositories.UsuarioRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @Slf4j
@@ -14,12 +21,20 @@ public class UsuarioService extends AbstractService<Usuario, Long> {
 
     private final UsuarioRepository usuarioRepository;
 
+    // índice email normalizado -> id para buscarPorEmail; null = sem cache
+    private CacheEntidade<String, Long> cacheEmail;
+
     public UsuarioService(UsuarioRepository usuarioRepository) {
         this.usuarioRepository = usuarioRepository;
     }
 
+    @Autowired(required = false)
+    public void setCacheEmail(CacheEntidade<String, Long> cacheEmail) {
+        this.cacheEmail = cacheEmail;
+    }
+
     /**
-     * Cria um usuário. Valida nome e email básicos e impede email duplicado.
+     * Cria um usuário. Valida nome e email básicos e impede email duplicado (via constraint única).
      */
     @Override
     public Usuario criar(Usuario usuario) {
@@ -39,14 +54,8 @@ public class UsuarioService extends AbstractService<Usuario, Long> {
             throw new IllegalArgumentException("Email inválido.");
         }
 
-        // impede email duplicado
-        Optional<Usuario> existente = usuarioRepository.findByEmail(usuario.getEmail());
-        if (existente.isPresent()) {
-            log.warn("Tentativa de criar usuário com email já existente: {}", usuario.getEmail());
-            throw new IllegalArgumentException("Email já cadastrado.");
-        }
-
-        Usuario salvo = usuarioRepository.save(usuario);
+        // email duplicado é barrado pela constraint única (sem SELECT prévio)
+        Usuario salvo = salvarVerificandoEmail(usuario);
         log.info("Usuário criado com sucesso: {}", salvo.getId());
         return salvo;
     }
@@ -55,28 +64,44 @@ public class UsuarioService extends AbstractService<Usuario, Long> {
      * Busca usuário por id. Lança ResourceNotFoundException se não existir.
      */
     @Override
+    @Transactional(readOnly = true)
     public Usuario buscarPorId(Long id) {
         log.debug("Buscando usuário por id: {}", id);
-        return usuarioRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
+        return buscarComCache(id, chave -> usuarioRepository.findById(chave)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado")));
     }
 
     /**
      * Retorna todos os usuários.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<Usuario> buscarTodos() {
         log.debug("Buscando todos os usuários");
         return usuarioRepository.findAll();
     }
 
+    /**
+     * Retorna uma página de usuários ordenada por id, a partir do cursor informado.
+     */
+    @Override
+    public Pagina<Usuario> buscarPagina(String cursor, int tamanho) {
+        int limite = limitarTamanhoPagina(tamanho);
+        log.debug("Buscando página de usuários (cursor={}, tamanho={})", cursor, limite);
+        List<Usuario> encontrados = usuarioRepository.findByIdGreaterThanOrderByIdAsc(idDoCursor(cursor), Limit.of(limite + 1));
+        return montarPagina(encontrados, limite, u -> codificarCursor(u.getId()));
+    }
+
     /**
      * Atualiza nome e email do usuário. Valida existência e email (se for alterado, checa duplicidade).
      */
     @Override
     public Usuario atualizar(Long id, Usuario usuario) {
         log.info("Atualizando usuário id: {}", id);
-        Usuario existente = buscarPorId(id);
+        // lê direto do banco: a gravação parte da linha atual (e da versao dela), não do cache
+        Usuario existente = usuarioRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
+        String emailAnterior = existente.getEmail();
 
         if (usuario == null) {
             throw new IllegalArgumentException("Dados para atualização não podem ser nulos.");
@@ -90,15 +115,14 @@ public class UsuarioService extends AbstractService<Usuario, Long> {
             if (!usuario.getEmail().contains("@")) {
                 throw new IllegalArgumentException("Email inválido.");
             }
-            // se trocar o email, verificar duplicidade
-            if (!usuario.getEmail().equalsIgnoreCase(existente.getEmail())) {
-                usuarioRepository.findByEmail(usuario.getEmail())
-                        .ifPresent(u -> { throw new IllegalArgumentException("Email já cadastrado."); });
+            // se trocar o email, a duplicidade é verificada pela constraint no save
+            if (!Usuario.normalizarEmail(usuario.getEmail()).equals(Usuario.normalizarEmail(existente.getEmail()))) {
                 existente.setEmail(usuario.getEmail());
             }
         }
 
-        Usuario atualizado = usuarioRepository.save(existente);
+        Usuario atualizado = salvarVerificandoEmail(existente);
+        invalidarCaches(id, emailAnterior);
         log.info("Usuário atualizado com sucesso: {}", atualizado.getId());
         return atualizado;
     }
@@ -110,21 +134,75 @@ public class UsuarioService extends AbstractService<Usuario, Long> {
     public void deletar(Long id) {
         log.warn("Deletando usuário id: {}", id);
         // valida existência
-        buscarPorId(id);
+        Usuario existente = buscarPorId(id);
         usuarioRepository.deleteById(id);
+        invalidarCaches(id, existente.getEmail());
         log.info("Usuário deletado com sucesso: {}", id);
     }
 
     /**
-     * Busca usuário por email (retorna Optional para uso flexível em serviços/testes).
+     * Grava o usuário e traduz a violação da constraint de email único em "Email já cadastrado.".
      */
+    private Usuario salvarVerificandoEmail(Usuario usuario) {
+        try {
+            return usuarioRepository.save(usuario);
+        } catch (DataIntegrityViolationException e) {
+            if (violouEmailUnico(e)) {
+                log.warn("Tentativa de gravar usuário com email já existente: {}", usuario.getEmail());
+                throw new IllegalArgumentException("Email já cadastrado.");
+            }
+            throw e;
+        }
+    }
+
+    private static boolean violouEmailUnico(DataIntegrityViolationException e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof ConstraintViolationException cve && cve.getConstraintName() != null
+                    && cve.getConstraintName().toLowerCase(Locale.ROOT).contains(Usuario.UK_EMAIL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void invalidarCaches(Long id, String email) {
+        invalidarCache(id);
+        if (cacheEmail != null && email != null) {
+            cacheEmail.invalidar(Usuario.normalizarEmail(email));
+        }
+    }
+
+    /**
+     * Busca usuário por email, sem diferenciar maiúsculas/minúsculas
+     * (retorna Optional para uso flexível em serviços/testes).
+     */
+    @Transactional(readOnly = true)
     public Optional<Usuario> buscarPorEmail(String email) {
-        return usuarioRepository.findByEmail(email);
+        if (email == null) {
+            return Optional.empty();
+        }
+        String normalizado = Usuario.normalizarEmail(email);
+        if (cacheEmail == null) {
+            return usuarioRepository.findByEmailNormalizado(normalizado);
+        }
+        Optional<Long> id = cacheEmail.consultar(normalizado);
+        if (id.isPresent()) {
+            Usuario usuario = buscarComCache(id.get(), chave -> usuarioRepository.findById(chave).orElse(null));
+            // confere o email: o índice pode apontar para um usuário que trocou de email
+            if (usuario != null && normalizado.equals(Usuario.normalizarEmail(usuario.getEmail()))) {
+                return Optional.of(usuario);
+            }
+            cacheEmail.invalidar(normalizado);
+        }
+        Optional<Usuario> encontrado = usuarioRepository.findByEmailNormalizado(normalizado);
+        encontrado.ifPresent(u -> cacheEmail.guardar(normalizado, u.getId()));
+        return encontrado;
     }
 
     /**
      * Busca usuários cujo nome contenha a string (útil em endpoints de busca simples).
      */
+    @Transactional(readOnly = true)
     public List<Usuario> buscarPorNomeLike(String nome) {
         return usuarioRepository.findByNomeContainingIgnoreCase(nome == null ? "" : nome);
     }
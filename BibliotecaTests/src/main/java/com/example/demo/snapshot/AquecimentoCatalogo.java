@@ -0,0 +1,279 @@
+package com.example.demo.snapshot;
+
+import com.example.demo.cache.CacheEntidade;
+import com.example.demo.dto.VersaoRegistro;
+import com.example.demo.models.Livro;
+import com.example.demo.models.Usuario;
+import com.example.demo.repositories.LivroRepository;
+import com.example.demo.repositories.UsuarioRepository;
+import com.example.demo.roteamento.ContextoRoteamento;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Partida aquecida: na subida carrega o snapshot local (SnapshotCatalogo) nos caches de livros e
+ * usuários, conferido contra o banco; de tempos em tempos e no encerramento grava um snapshot novo.
+ *
+ * Roda como ApplicationRunner, então termina antes de a aplicação ficar pronta (readiness). A conferência
+ * lê só (id, versao, atualizadoEm) da faixa de ids do snapshot: o que mudou desde ele é recarregado e o
+ * que sumiu do banco é descartado. O que foi gravado depois dele vem de uma consulta por atualizadoEm
+ * (indexada) e entra enquanto couber no cache. O resto do catálogo não é lido.
+ *
+ * Desligado por padrão; habilitado, exige biblioteca.snapshot.arquivo (num diretório que sobreviva ao
+ * reinício, e não o temporário).
+ */
+@Slf4j
+@Component
+@Order(0) // antes do AquecimentoJit, que então já encontra os caches carregados
+@ConditionalOnProperty(name = "biblioteca.snapshot.habilitado", havingValue = "true")
+public class AquecimentoCatalogo implements ApplicationRunner {
+
+    // registros por consulta na conferência e na gravação
+    static final int PAGINA = 1000;
+
+    @FunctionalInterface
+    private interface VersoesEntre {
+        List<VersaoRegistro> buscar(Long apos, Long ate, Limit limit);
+    }
+
+    /**
+     * Como ler, conferir e guardar um tipo de registro do catálogo.
+     */
+    private record Secao<T>(String nome,
+                            Function<T, VersaoRegistro> versao,
+                            VersoesEntre versoesEntre,
+                            BiFunction<Instant, Limit, List<VersaoRegistro>> atualizadosApos,
+                            BiFunction<Long, Limit, List<T>> registrosApos,
+                            Function<List<Long>, List<T>> buscarPorIds,
+                            Consumer<T> guardar,
+                            int capacidade) {
+    }
+
+    private final Path arquivo;
+    private final Duration intervalo;
+    private final boolean gravarAoEncerrar;
+    private final Secao<Livro> livros;
+    private final Secao<Usuario> usuarios;
+    private ScheduledExecutorService agendador;
+
+    public AquecimentoCatalogo(LivroRepository livroRepository,
+                               UsuarioRepository usuarioRepository,
+                               CacheEntidade<Long, Livro> cacheLivros,
+                               CacheEntidade<Long, Usuario> cacheUsuarios,
+                               CacheEntidade<String, Long> cacheEmailUsuarios,
+                               @Value("${biblioteca.snapshot.arquivo:#{null}}") Path arquivo,
+                               @Value("${biblioteca.snapshot.intervalo:15m}") Duration intervalo,
+                               @Value("${biblioteca.snapshot.gravar-ao-encerrar:true}") boolean gravarAoEncerrar) {
+        if (arquivo == null || arquivo.toString().isBlank()) {
+            throw new IllegalStateException("biblioteca.snapshot.habilitado=true exige biblioteca.snapshot.arquivo "
+                    + "(caminho num diretório persistente).");
+        }
+        this.arquivo = arquivo;
+        this.intervalo = intervalo;
+        this.gravarAoEncerrar = gravarAoEncerrar;
+        this.livros = new Secao<>("livros",
+                l -> new VersaoRegistro(l.getId(), l.getVersao(), l.getAtualizadoEm()),
+                livroRepository::buscarVersoesEntre,
+                livroRepository::buscarVersoesAtualizadasApos,
+                livroRepository::findByIdGreaterThanOrderByIdAsc,
+                livroRepository::findAllById,
+                l -> cacheLivros.guardar(l.getId(), l),
+                cacheLivros.getTamanhoMaximo());
+        this.usuarios = new Secao<>("usuarios",
+                u -> new VersaoRegistro(u.getId(), u.getVersao(), u.getAtualizadoEm()),
+                usuarioRepository::buscarVersoesEntre,
+                usuarioRepository::buscarVersoesAtualizadasApos,
+                usuarioRepository::findByIdGreaterThanOrderByIdAsc,
+                usuarioRepository::findAllById,
+                u -> {
+                    cacheUsuarios.guardar(u.getId(), u);
+                    if (u.getEmail() != null) {
+                        cacheEmailUsuarios.guardar(Usuario.normalizarEmail(u.getEmail()), u.getId());
+                    }
+                },
+                cacheUsuarios.getTamanhoMaximo());
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        carregar();
+        if (!intervalo.isZero() && !intervalo.isNegative()) {
+            agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "snapshot-catalogo");
+                t.setDaemon(true);
+                return t;
+            });
+            agendador.scheduleWithFixedDelay(this::gravarComLog, intervalo.toMillis(), intervalo.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (agendador != null) {
+            agendador.shutdownNow();
+        }
+        if (gravarAoEncerrar) {
+            gravarComLog();
+        }
+    }
+
+    /**
+     * Carrega o snapshot nos caches. Sem arquivo ou com arquivo inválido a aplicação sobe fria, como antes.
+     */
+    public void carregar() {
+        if (!Files.isReadable(arquivo)) {
+            log.info("Sem snapshot do catálogo em {}; partida sem aquecimento", arquivo);
+            return;
+        }
+        long inicio = System.nanoTime();
+        SnapshotCatalogo.Conteudo conteudo;
+        try {
+            conteudo = SnapshotCatalogo.ler(arquivo, livros.capacidade(), usuarios.capacidade());
+        } catch (IOException e) {
+            log.warn("Snapshot do catálogo ignorado: {}", e.getMessage());
+            return;
+        }
+        // a conferência vai ao primário: com réplica atrasada o cache subiria com registros velhos
+        int qtdLivros;
+        int qtdUsuarios;
+        ContextoRoteamento.iniciarLeituraNoPrimario();
+        try {
+            qtdLivros = aquecer(livros, conteudo.livros(), conteudo.geradoEm());
+            qtdUsuarios = aquecer(usuarios, conteudo.usuarios(), conteudo.geradoEm());
+        } finally {
+            ContextoRoteamento.terminarLeituraNoPrimario();
+        }
+        log.info("Caches aquecidos pelo snapshot de {}: {} livros, {} usuários em {} ms", conteudo.geradoEm(),
+                qtdLivros, qtdUsuarios, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Grava o snapshot com os primeiros registros (por id) de cada catálogo, até a capacidade do cache.
+     */
+    public synchronized void gravar() throws IOException {
+        long inicio = System.nanoTime();
+        try (SnapshotCatalogo.Escritor escritor = SnapshotCatalogo.escritor(arquivo, Instant.now())) {
+            percorrer(livros, escritor::livro);
+            percorrer(usuarios, escritor::usuario);
+            escritor.concluir();
+            log.info("Snapshot do catálogo gravado em {}: {} livros, {} usuários em {} ms", arquivo,
+                    escritor.getQtdLivros(), escritor.getQtdUsuarios(), (System.nanoTime() - inicio) / 1_000_000);
+        }
+    }
+
+    private void gravarComLog() {
+        try {
+            gravar();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Falha ao gravar snapshot do catálogo: {}", e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface Gravacao<T> {
+        void gravar(T registro) throws IOException;
+    }
+
+    private <T> void percorrer(Secao<T> secao, Gravacao<T> gravacao) throws IOException {
+        long ultimoId = 0;
+        int gravados = 0;
+        List<T> pagina;
+        do {
+            pagina = secao.registrosApos().apply(ultimoId, Limit.of(Math.min(PAGINA, secao.capacidade() - gravados)));
+            for (T registro : pagina) {
+                gravacao.gravar(registro);
+                ultimoId = secao.versao().apply(registro).id();
+            }
+            gravados += pagina.size();
+        } while (!pagina.isEmpty() && gravados < secao.capacidade());
+    }
+
+    /**
+     * Confere os registros do snapshot contra o banco e guarda no cache o resultado. Retorna quantos foram guardados.
+     */
+    private <T> int aquecer(Secao<T> secao, List<T> doSnapshot, Instant geradoEm) {
+        Map<Long, T> confirmados = new LinkedHashMap<>();
+        for (T registro : doSnapshot) {
+            confirmados.put(secao.versao().apply(registro).id(), registro);
+        }
+        Set<Long> noBanco = new HashSet<>();
+        List<Long> recarregar = new ArrayList<>();
+
+        if (!confirmados.isEmpty()) {
+            // o snapshot tem os primeiros ids do catálogo: só a faixa dele é conferida
+            long ultimoId = Collections.min(confirmados.keySet()) - 1;
+            long maiorId = Collections.max(confirmados.keySet());
+            List<VersaoRegistro> pagina;
+            do {
+                pagina = secao.versoesEntre().buscar(ultimoId, maiorId, Limit.of(PAGINA));
+                for (VersaoRegistro atual : pagina) {
+                    T registro = confirmados.get(atual.id());
+                    if (registro != null) {
+                        noBanco.add(atual.id());
+                        if (!mesmaVersao(secao.versao().apply(registro), atual)) {
+                            recarregar.add(atual.id());
+                        }
+                    }
+                    ultimoId = atual.id();
+                }
+            } while (pagina.size() == PAGINA);
+        }
+
+        int removidos = confirmados.size() - noBanco.size();
+        confirmados.keySet().retainAll(noBanco);
+        // gravados depois do snapshot e fora dele, enquanto couberem; os de dentro já foram conferidos
+        int vagas = secao.capacidade() - confirmados.size();
+        if (vagas > 0) {
+            for (VersaoRegistro novo : secao.atualizadosApos().apply(geradoEm, Limit.of(secao.capacidade()))) {
+                if (vagas == 0) break;
+                if (!confirmados.containsKey(novo.id())) {
+                    recarregar.add(novo.id());
+                    vagas--;
+                }
+            }
+        }
+        recarregar.forEach(confirmados::remove);
+        for (int i = 0; i < recarregar.size(); i += PAGINA) {
+            for (T registro : secao.buscarPorIds().apply(recarregar.subList(i, Math.min(i + PAGINA, recarregar.size())))) {
+                confirmados.put(secao.versao().apply(registro).id(), registro);
+            }
+        }
+        confirmados.values().forEach(secao.guardar());
+        log.debug("Snapshot de {}: {} do arquivo, {} recarregados do banco, {} removidos", secao.nome(),
+                doSnapshot.size(), recarregar.size(), removidos);
+        return confirmados.size();
+    }
+
+    private static boolean mesmaVersao(VersaoRegistro snapshot, VersaoRegistro banco) {
+        return Objects.equals(snapshot.versao(), banco.versao())
+                && Objects.equals(snapshot.atualizadoEm(), banco.atualizadoEm());
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.demo.snapshot;
+
+import com.example.demo.models.Livro;
+import com.example.demo.models.Usuario;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Formato binário do snapshot de livros e usuários (big-endian):
+ * <pre>
+ * cabeçalho (40 bytes): magic "BIBS", versão do formato, geradoEm (epoch ms),
+ *                       qtd. livros, qtd. usuários, posição da seção de usuários, CRC32C do corpo
+ * livro:   id, versao, atualizadoEm, paginas, titulo, autor
+ * usuario: id, versao, atualizadoEm, nome, email
+ * </pre>
+ * Instant = segundos (long) + nanos (int), Long.MIN_VALUE se null; texto = tamanho (int, -1 se null) + UTF-8.
+ * A leitura usa o arquivo mapeado em memória; a gravação vai para um arquivo temporário e só
+ * substitui o anterior depois de completa, então um processo interrompido não deixa snapshot pela metade.
+ */
+public final class SnapshotCatalogo {
+
+    static final int MAGIC = 0x42494253; // "BIBS"
+    static final int VERSAO_FORMATO = 1;
+    static final int TAMANHO_CABECALHO = 40;
+
+    public record Conteudo(Instant geradoEm, List<Livro> livros, List<Usuario> usuarios) {
+    }
+
+    private SnapshotCatalogo() {}
+
+    public static Escritor escritor(Path arquivo, Instant geradoEm) throws IOException {
+        return new Escritor(arquivo, geradoEm);
+    }
+
+    /**
+     * Lê até maxLivros livros e maxUsuarios usuários (os de menor id). Arquivo truncado, de outro
+     * formato ou com CRC divergente gera IOException.
+     */
+    public static Conteudo ler(Path arquivo, int maxLivros, int maxUsuarios) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            if (tamanho < TAMANHO_CABECALHO) {
+                throw new IOException("Snapshot truncado: " + arquivo);
+            }
+            MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanho);
+            if (mapa.getInt() != MAGIC || mapa.getInt() != VERSAO_FORMATO) {
+                throw new IOException("Arquivo não é um snapshot do catálogo (ou é de outra versão): " + arquivo);
+            }
+            Instant geradoEm = Instant.ofEpochMilli(mapa.getLong());
+            int qtdLivros = mapa.getInt();
+            int qtdUsuarios = mapa.getInt();
+            long posicaoUsuarios = mapa.getLong();
+            long crcEsperado = mapa.getLong();
+
+            CRC32C crc = new CRC32C();
+            crc.update(mapa.duplicate().position(TAMANHO_CABECALHO));
+            if (crc.getValue() != crcEsperado || posicaoUsuarios > tamanho) {
+                throw new IOException("Snapshot corrompido (CRC divergente): " + arquivo);
+            }
+
+            try {
+                List<Livro> livros = new ArrayList<>(Math.min(qtdLivros, maxLivros));
+                mapa.position(TAMANHO_CABECALHO);
+                for (int i = 0; i < qtdLivros && i < maxLivros; i++) {
+                    livros.add(lerLivro(mapa));
+                }
+                List<Usuario> usuarios = new ArrayList<>(Math.min(qtdUsuarios, maxUsuarios));
+                mapa.position((int) posicaoUsuarios);
+                for (int i = 0; i < qtdUsuarios && i < maxUsuarios; i++) {
+                    usuarios.add(lerUsuario(mapa));
+                }
+                return new Conteudo(geradoEm, livros, usuarios);
+            } catch (RuntimeException e) {
+                throw new IOException("Snapshot inválido: " + arquivo, e);
+            }
+        }
+    }
+
+    private static Livro lerLivro(ByteBuffer b) {
+        Livro livro = new Livro();
+        livro.setId(b.getLong());
+        livro.setVersao(b.getLong());
+        livro.setAtualizadoEm(lerInstant(b));
+        livro.setPaginas(b.getInt());
+        livro.setTitulo(lerTexto(b));
+        livro.setAutor(lerTexto(b));
+        return livro;
+    }
+
+    private static Usuario lerUsuario(ByteBuffer b) {
+        Usuario usuario = new Usuario();
+        usuario.setId(b.getLong());
+        usuario.setVersao(b.getLong());
+        usuario.setAtualizadoEm(lerInstant(b));
+        usuario.setNome(lerTexto(b));
+        usuario.setEmail(lerTexto(b));
+        return usuario;
+    }
+
+    private static Instant lerInstant(ByteBuffer b) {
+        long segundos = b.getLong();
+        int nanos = b.getInt();
+        return segundos == Long.MIN_VALUE ? null : Instant.ofEpochSecond(segundos, nanos);
+    }
+
+    private static String lerTexto(ByteBuffer b) {
+        int tamanho = b.getInt();
+        if (tamanho < 0) return null;
+        byte[] bytes = new byte[tamanho];
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Grava livros e depois usuários (nessa ordem). Só concluir() publica o arquivo; fechar
+     * sem concluir descarta o temporário.
+     */
+    public static final class Escritor implements Closeable {
+
+        private final Path arquivo;
+        private final Path temporario;
+        private final Instant geradoEm;
+        private final FileChannel canal;
+        private final CRC32C crc = new CRC32C();
+        private final DataOutputStream saida;
+        private int qtdLivros;
+        private int qtdUsuarios;
+        private long posicaoUsuarios = -1;
+        private boolean concluido;
+
+        private Escritor(Path arquivo, Instant geradoEm) throws IOException {
+            Path diretorio = arquivo.toAbsolutePath().getParent();
+            Files.createDirectories(diretorio);
+            this.arquivo = arquivo;
+            this.temporario = Files.createTempFile(diretorio, arquivo.getFileName().toString(), ".tmp");
+            this.geradoEm = geradoEm;
+            this.canal = FileChannel.open(temporario, StandardOpenOption.WRITE);
+            canal.position(TAMANHO_CABECALHO);
+            OutputStream corpo = Channels.newOutputStream(canal);
+            this.saida = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(corpo, crc), 1 << 16));
+        }
+
+        public void livro(Livro livro) throws IOException {
+            if (posicaoUsuarios >= 0) {
+                throw new IllegalStateException("Livros devem ser gravados antes dos usuários.");
+            }
+            saida.writeLong(livro.getId());
+            saida.writeLong(livro.getVersao() != null ? livro.getVersao() : 0L);
+            escreverInstant(livro.getAtualizadoEm());
+            saida.writeInt(livro.getPaginas());
+            escreverTexto(livro.getTitulo());
+            escreverTexto(livro.getAutor());
+            qtdLivros++;
+        }
+
+        public void usuario(Usuario usuario) throws IOException {
+            if (posicaoUsuarios < 0) {
+                posicaoUsuarios = TAMANHO_CABECALHO + saida.size();
+            }
+            saida.writeLong(usuario.getId());
+            saida.writeLong(usuario.getVersao() != null ? usuario.getVersao() : 0L);
+            escreverInstant(usuario.getAtualizadoEm());
+            escreverTexto(usuario.getNome());
+            escreverTexto(usuario.getEmail());
+            qtdUsuarios++;
+        }
+
+        public void concluir() throws IOException {
+            if (posicaoUsuarios < 0) {
+                posicaoUsuarios = TAMANHO_CABECALHO + saida.size();
+            }
+            saida.flush();
+            ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO)
+                    .putInt(MAGIC).putInt(VERSAO_FORMATO).putLong(geradoEm.toEpochMilli())
+                    .putInt(qtdLivros).putInt(qtdUsuarios).putLong(posicaoUsuarios).putLong(crc.getValue())
+                    .flip();
+            canal.write(cabecalho, 0);
+            canal.force(true);
+            canal.close();
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            concluido = true;
+        }
+
+        public int getQtdLivros() {
+            return qtdLivros;
+        }
+
+        public int getQtdUsuarios() {
+            return qtdUsuarios;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!concluido) {
+                canal.close();
+                Files.deleteIfExists(temporario);
+            }
+        }
+
+        private void escreverInstant(Instant instante) throws IOException {
+            saida.writeLong(instante == null ? Long.MIN_VALUE : instante.getEpochSecond());
+            saida.writeInt(instante == null ? 0 : instante.getNano());
+        }
+
+        private void escreverTexto(String texto) throws IOException {
+            if (texto == null) {
+                saida.writeInt(-1);
+                return;
+            }
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            saida.writeInt(bytes.length);
+            saida.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+-- Índices das consultas dos repositórios (iguais em todos os bancos).
+
+-- findByAutorOrderByTitulo*: filtro e ordenação pelo mesmo índice
+CREATE INDEX IF NOT EXISTS idx_livros_autor_titulo ON livros (autor, titulo);
+
+-- findByEmail (email como digitado; findByEmailNormalizado usa o índice de uk_usuarios_email)
+CREATE INDEX IF NOT EXISTS idx_usuarios_email ON usuarios (email);
+
+-- histórico do usuário por data (keyset em data_emprestimo desc, id desc)
+CREATE INDEX IF NOT EXISTS idx_emprestimos_usuario_data ON emprestimos (usuario_id, data_emprestimo, id);
+
+-- chave estrangeira para livros: exclusão de livro sem varrer emprestimos
+CREATE INDEX IF NOT EXISTS idx_emprestimos_livro ON emprestimos (livro_id);
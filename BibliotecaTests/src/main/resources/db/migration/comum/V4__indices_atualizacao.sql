@@ -0,0 +1,6 @@
+-- Conferência do snapshot do catálogo (AquecimentoCatalogo): registros gravados depois do snapshot
+-- saem deste índice em vez de uma varredura da tabela.
+
+CREATE INDEX IF NOT EXISTS idx_livros_atualizado_em ON livros (atualizado_em);
+
+CREATE INDEX IF NOT EXISTS idx_usuarios_atualizado_em ON usuarios (atualizado_em);
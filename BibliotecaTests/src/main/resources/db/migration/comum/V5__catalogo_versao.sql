@@ -0,0 +1,10 @@
+-- Versão do catálogo de livros (ETag de GET /api/livros): uma linha, incrementada na mesma transação
+-- de cada escrita em livros. Substitui o agregado sobre a tabela inteira a cada listagem.
+
+CREATE TABLE IF NOT EXISTS catalogo_versao (
+    id     INTEGER NOT NULL,
+    versao BIGINT  NOT NULL,
+    CONSTRAINT pk_catalogo_versao PRIMARY KEY (id)
+);
+
+INSERT INTO catalogo_versao (id, versao) SELECT 1, 0 WHERE NOT EXISTS (SELECT 1 FROM catalogo_versao);
@@ -0,0 +1,5 @@
+-- Equivalente em H2 (testes e benchmarks) dos índices de V3 do PostgreSQL.
+-- H2 não tem índice parcial nem de expressão: empréstimos em aberto usam índice composto, e
+-- findByNomeContainingIgnoreCase fica sem índice (varredura, aceitável nas bases de teste).
+
+CREATE INDEX IF NOT EXISTS idx_emprestimos_abertos ON emprestimos (usuario_id, data_devolucao);
@@ -0,0 +1,10 @@
+-- Índices que dependem de recursos do PostgreSQL.
+
+-- findByUsuarioAndDataDevolucaoIsNull / countBy...: só os empréstimos em aberto (limite em criar()
+-- e /api/emprestimos/usuario/{id}/abertos)
+CREATE INDEX IF NOT EXISTS idx_emprestimos_abertos ON emprestimos (usuario_id) WHERE data_devolucao IS NULL;
+
+-- findByNomeContainingIgnoreCase gera upper(nome) like upper('%...%'): B-tree não atende o curinga
+-- inicial, trigramas sim. A extensão exige permissão de CREATE no banco.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_usuarios_nome_trgm ON usuarios USING gin (upper(nome) gin_trgm_ops);
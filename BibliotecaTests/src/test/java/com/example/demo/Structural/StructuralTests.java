@@ -10,6 +10,7 @@ import com.example.demo.services.EmprestimoService;
 import com.example.demo.services.ResourceNotFoundException;
 import com.example.demo.services.LivroService;
 import com.example.demo.services.UsuarioService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,11 +18,11 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
-import java.util.List;
 import java.util.Optional;
-import java.util.ArrayList;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -158,7 +159,6 @@ public class StructuralTests {
         u.setNome("Pedro");
         u.setEmail("p@x.com");
 
-        when(usuarioRepository.findByEmail("p@x.com")).thenReturn(Optional.empty());
         when(usuarioRepository.save(any(Usuario.class))).thenAnswer(inv -> {
             Usuario s = inv.getArgument(0);
             s.setId(1L);
@@ -176,10 +176,10 @@ public class StructuralTests {
         u.setNome("X");
         u.setEmail("dup@ex.com");
 
-        when(usuarioRepository.findByEmail("dup@ex.com")).thenReturn(Optional.of(new Usuario()));
+        when(usuarioRepository.save(any(Usuario.class))).thenThrow(violacaoEmailUnico());
 
         assertThrows(IllegalArgumentException.class, () -> usuarioService.criar(u));
-        verify(usuarioRepository, never()).save(any());
+        verify(usuarioRepository, never()).findByEmail(any());
     }
 
     @Test
@@ -190,21 +190,25 @@ public class StructuralTests {
         existente.setEmail("old@a.com");
 
         when(usuarioRepository.findById(5L)).thenReturn(Optional.of(existente));
-        when(usuarioRepository.findByEmail("new@b.com")).thenReturn(Optional.of(new Usuario()));
+        when(usuarioRepository.save(any(Usuario.class))).thenThrow(violacaoEmailUnico());
 
         Usuario payload = new Usuario();
         payload.setEmail("new@b.com");
 
         // se já existe com esse email, deve lançar IllegalArgumentException
         assertThrows(IllegalArgumentException.class, () -> usuarioService.atualizar(5L, payload));
-        verify(usuarioRepository, never()).save(any());
+    }
+
+    private static DataIntegrityViolationException violacaoEmailUnico() {
+        return new DataIntegrityViolationException("duplicado",
+                new ConstraintViolationException("duplicado", new SQLException("duplicado"), Usuario.UK_EMAIL));
     }
 
     @Test
     void buscarPorEmail_retornaOptional() {
         Usuario u = new Usuario();
         u.setEmail("z@x.com");
-        when(usuarioRepository.findByEmail("z@x.com")).thenReturn(Optional.of(u));
+        when(usuarioRepository.findByEmailNormalizado("z@x.com")).thenReturn(Optional.of(u));
 
         Optional<Usuario> r = usuarioService.buscarPorEmail("z@x.com");
         assertThat(r).isPresent();
@@ -227,7 +231,7 @@ public class StructuralTests {
 
         when(usuarioRepository.findById(1L)).thenReturn(Optional.of(u));
         when(livroRepository.findById(2L)).thenReturn(Optional.of(l));
-        when(emprestimoRepository.findByUsuarioAndDataDevolucaoIsNull(u)).thenReturn(new ArrayList<>());
+        when(emprestimoRepository.countByUsuarioAndDataDevolucaoIsNull(u)).thenReturn(0L);
         when(emprestimoRepository.save(any(Emprestimo.class))).thenAnswer(inv -> {
             Emprestimo saved = inv.getArgument(0);
             saved.setId(7L);
@@ -251,12 +255,9 @@ public class StructuralTests {
         e.setLivro(l);
 
         // simula 5 empréstimos abertos
-        List<Emprestimo> list = new ArrayList<>();
-        for (int i = 0; i < 5; i++) list.add(new Emprestimo());
-
         when(usuarioRepository.findById(2L)).thenReturn(Optional.of(u));
         when(livroRepository.findById(3L)).thenReturn(Optional.of(l));
-        when(emprestimoRepository.findByUsuarioAndDataDevolucaoIsNull(u)).thenReturn(list);
+        when(emprestimoRepository.countByUsuarioAndDataDevolucaoIsNull(u)).thenReturn(5L);
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> emprestimoService.criar(e));
         assertThat(ex.getMessage()).containsIgnoringCase("5 empréstimos");
@@ -0,0 +1,78 @@
+package com.example.demo.unit;
+
+import com.example.demo.aquecimento.AquecimentoJit;
+import com.example.demo.aquecimento.CriterioEstabilizacao;
+import com.example.demo.consultas.PerfiladorConsultas;
+import com.example.demo.models.Emprestimo;
+import com.example.demo.models.Livro;
+import com.example.demo.models.Usuario;
+import com.example.demo.repositories.memoria.LivroRepositoryMemoria;
+import com.example.demo.repositories.memoria.UsuarioRepositoryMemoria;
+import com.example.demo.services.EmprestimoService;
+import com.example.demo.services.UsuarioService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AquecimentoJitTest {
+
+    // ---------- Critério ----------
+    @Test
+    void testCriterio_estabilizaDepoisDeRodadasSeguidasAbaixoDoLimite() {
+        CriterioEstabilizacao criterio = new CriterioEstabilizacao(2, 3);
+
+        assertFalse(criterio.registrar(40, 500)); // 80 compilações C2 por mil operações
+        assertFalse(criterio.registrar(1, 500));
+        assertFalse(criterio.registrar(0, 500));
+        assertFalse(criterio.registrar(6, 500)); // volta a compilar: zera a contagem
+        assertFalse(criterio.registrar(0, 500));
+        assertFalse(criterio.registrar(1, 500));
+        assertTrue(criterio.registrar(1, 500));
+        assertEquals(2.0, criterio.getUltimaTaxa(), 1e-9);
+    }
+
+    @Test
+    void testCriterio_rejeitaParametrosInvalidos() {
+        assertThrows(IllegalArgumentException.class, () -> new CriterioEstabilizacao(-0.1, 3));
+        assertThrows(IllegalArgumentException.class, () -> new CriterioEstabilizacao(2, 0));
+    }
+
+    // ---------- Aquecimento ----------
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAquecer_usaServicosESoValidaEmprestimos() throws Exception {
+        LivroRepositoryMemoria livros = new LivroRepositoryMemoria();
+        UsuarioRepositoryMemoria usuarios = new UsuarioRepositoryMemoria();
+        livros.save(new Livro("Dom Casmurro", "Machado", 256));
+        usuarios.save(new Usuario("Ana", "ana@email.com"));
+        UsuarioService usuarioService = mock(UsuarioService.class);
+        EmprestimoService emprestimoService = mock(EmprestimoService.class);
+        ObjectProvider<PerfiladorConsultas> perfilador = mock(ObjectProvider.class);
+
+        // sem local.server.port: os GETs de livros ficam de fora; limite alto para estabilizar em 2 rodadas
+        // (2 flushes do JFR, cerca de 2 s)
+        AquecimentoJit aquecimento = new AquecimentoJit(livros, usuarios, usuarioService, emprestimoService,
+                new MockEnvironment(), perfilador, 6, 1, 1, 2, 1_000.0, 2, Duration.ofSeconds(30));
+
+        assertEquals(2, aquecimento.aquecer());
+        verify(usuarioService, atLeastOnce()).buscarPorEmail(any());
+        verify(emprestimoService, atLeastOnce()).validar(any(Emprestimo.class));
+        verify(emprestimoService, never()).criar(any(Emprestimo.class));
+        verify(perfilador).ifAvailable(any());
+    }
+
+    @Test
+    void testAquecer_semOperacoesNaoRoda() throws Exception {
+        AquecimentoJit aquecimento = new AquecimentoJit(new LivroRepositoryMemoria(), new UsuarioRepositoryMemoria(),
+                mock(UsuarioService.class), mock(EmprestimoService.class),
+                new MockEnvironment(), null, 6, 0, 0, 1, 2, 3, Duration.ofSeconds(1));
+
+        assertEquals(0, aquecimento.aquecer());
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.demo.unit;
+
+import com.example.demo.cache.CacheEntidade;
+import com.example.demo.cache.EstatisticasCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheEntidadeTest {
+
+    @Test
+    void testObter_segundaLeituraVemDoCache() {
+        CacheEntidade<Long, String> cache = new CacheEntidade<>("teste", 10, Duration.ofMinutes(1));
+        AtomicInteger cargas = new AtomicInteger();
+
+        assertEquals("valor-1", cache.obter(1L, id -> { cargas.incrementAndGet(); return "valor-" + id; }));
+        assertEquals("valor-1", cache.obter(1L, id -> { cargas.incrementAndGet(); return "outro"; }));
+
+        assertEquals(1, cargas.get());
+        EstatisticasCache stats = cache.estatisticas();
+        assertEquals(1, stats.acertos());
+        assertEquals(1, stats.falhas());
+        assertEquals(0.5, stats.taxaAcerto());
+    }
+
+    @Test
+    void testTamanhoMaximo_removeMenosUsado() {
+        CacheEntidade<Long, String> cache = new CacheEntidade<>("teste", 2, Duration.ofMinutes(1));
+        cache.guardar(1L, "a");
+        cache.guardar(2L, "b");
+        cache.consultar(1L); // 1 passa a ser o mais recente
+        cache.guardar(3L, "c");
+
+        assertEquals(2, cache.tamanho());
+        assertTrue(cache.consultar(1L).isPresent());
+        assertTrue(cache.consultar(2L).isEmpty());
+        assertEquals(1, cache.estatisticas().remocoes());
+    }
+
+    @Test
+    void testTtl_entradaExpiradaNaoERetornada() throws InterruptedException {
+        CacheEntidade<Long, String> cache = new CacheEntidade<>("teste", 10, Duration.ofMillis(5));
+        cache.guardar(1L, "a");
+        Thread.sleep(20);
+
+        assertTrue(cache.consultar(1L).isEmpty());
+        assertEquals(1, cache.estatisticas().remocoes());
+    }
+
+    @Test
+    void testInvalidarDuranteCarga_naoGuardaValorAntigo() {
+        CacheEntidade<Long, String> cache = new CacheEntidade<>("teste", 10, Duration.ofMinutes(1));
+
+        cache.obter(1L, id -> {
+            cache.invalidar(id); // escrita concorrente enquanto a carga acontece
+            return "antigo";
+        });
+
+        assertTrue(cache.consultar(1L).isEmpty());
+    }
+
+    @Test
+    void testInvalidarOutraChaveDuranteCarga_guardaValor() {
+        CacheEntidade<Long, String> cache = new CacheEntidade<>("teste", 10, Duration.ofMinutes(1));
+
+        cache.obter(1L, id -> {
+            cache.invalidar(2L); // escrita em outra chave não afeta esta carga
+            return "atual";
+        });
+
+        assertEquals("atual", cache.consultar(1L).orElseThrow());
+    }
+
+    @Test
+    void testComCopia_chamadorNaoAlteraOCache() {
+        CacheEntidade<Long, StringBuilder> cache =
+                new CacheEntidade<>("teste", 10, Duration.ofMinutes(1), v -> new StringBuilder(v));
+
+        StringBuilder carregado = cache.obter(1L, id -> new StringBuilder("a"));
+        carregado.append('!');
+        cache.consultar(1L).orElseThrow().append('?');
+        StringBuilder guardado = new StringBuilder("b");
+        cache.guardar(2L, guardado);
+        guardado.append('!');
+
+        assertEquals("a", cache.obter(1L, id -> new StringBuilder("outro")).toString());
+        assertEquals("b", cache.consultar(2L).orElseThrow().toString());
+        assertNotSame(cache.consultar(1L).orElseThrow(), cache.consultar(1L).orElseThrow());
+    }
+
+    @Test
+    void testAlterarTodos_alteraNoLugarEDescartaCargaEmAndamento() {
+        CacheEntidade<Long, StringBuilder> cache = new CacheEntidade<>("teste", 10, Duration.ofMinutes(1));
+        cache.guardar(1L, new StringBuilder("a"));
+
+        cache.obter(2L, id -> {
+            cache.alterarTodos(valor -> valor.append('!')); // escrita concorrente enquanto a carga acontece
+            return new StringBuilder("antigo");
+        });
+
+        assertEquals("a!", cache.consultar(1L).orElseThrow().toString());
+        assertTrue(cache.consultar(2L).isEmpty());
+    }
+
+    @Test
+    void testExcecaoNaCarga_naoGuardaNada() {
+        CacheEntidade<Long, String> cache = new CacheEntidade<>("teste", 10, Duration.ofMinutes(1));
+
+        assertThrows(RuntimeException.class, () -> cache.obter(1L, id -> { throw new RuntimeException("não existe"); }));
+        assertEquals(0, cache.tamanho());
+    }
+
+    @Test
+    void testConfiguracaoInvalida_deveLancar() {
+        assertThrows(IllegalArgumentException.class, () -> new CacheEntidade<Long, String>("x", 0, Duration.ofMinutes(1)));
+        assertThrows(IllegalArgumentException.class, () -> new CacheEntidade<Long, String>("x", 10, Duration.ZERO));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.unit;
+
+import com.example.demo.config.ConferenciaAot;
+import com.example.demo.config.PerfiladorConsultasConfig;
+import com.example.demo.snapshot.AquecimentoCatalogo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConferenciaAotTest {
+
+    // contexto "gerado" com snapshot e perfilador ligados e o resto no padrão
+    private static DefaultListableBeanFactory contexto() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("aquecimentoCatalogo", new RootBeanDefinition(AquecimentoCatalogo.class));
+        beanFactory.registerBeanDefinition("perfiladorConsultasConfig",
+                new RootBeanDefinition(PerfiladorConsultasConfig.class));
+        return beanFactory;
+    }
+
+    @Test
+    void testDivergencias_mesmaConfiguracao_nenhuma() {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("biblioteca.snapshot.habilitado", "true")
+                .withProperty("biblioteca.consultas.perfilador.habilitado", "true");
+
+        assertEquals(List.of(), ConferenciaAot.divergencias(contexto(), env));
+    }
+
+    @Test
+    void testDivergencias_chavesMudadasSoNaExecucao_listadas() {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("biblioteca.snapshot.habilitado", "false")
+                .withProperty("biblioteca.consultas.perfilador.habilitado", "true")
+                .withProperty("biblioteca.emprestimos.agrupamento.habilitado", "true");
+        env.setActiveProfiles("memoria");
+
+        assertEquals(List.of(
+                "spring.profiles.active=memoria (execução: true, contexto: false)",
+                "biblioteca.emprestimos.agrupamento.habilitado (execução: true, contexto: false)",
+                "biblioteca.snapshot.habilitado (execução: false, contexto: true)"),
+                ConferenciaAot.divergencias(contexto(), env));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.unit;
+
+import com.example.demo.controllers.EmprestimoController;
+import com.example.demo.dto.EmprestimoResumo;
+import com.example.demo.models.Emprestimo;
+import com.example.demo.models.Livro;
+import com.example.demo.models.Usuario;
+import com.example.demo.services.EmprestimoService;
+import com.example.demo.services.Pagina;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(EmprestimoController.class)
+public class EmprestimoControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmprestimoService emprestimoService;
+
+    private final EmprestimoResumo resumo = new EmprestimoResumo(7L, LocalDate.of(2024, 3, 1), null,
+            1L, "João", 2L, "Spring Boot", "Autor B");
+
+    @Test
+    public void testBuscarPorUsuario_retornaResumosPlanos() throws Exception {
+        Mockito.when(emprestimoService.buscarHistoricoUsuario(1L, "abc", 10))
+                .thenReturn(new Pagina<>(List.of(resumo), "def"));
+
+        mockMvc.perform(get("/api/emprestimos/usuario/1").param("cursor", "abc").param("tamanho", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens[0].id").value(7))
+                .andExpect(jsonPath("$.itens[0].usuarioNome").value("João"))
+                .andExpect(jsonPath("$.itens[0].livroTitulo").value("Spring Boot"))
+                .andExpect(jsonPath("$.itens[0].dataEmprestimo").value("2024-03-01"))
+                .andExpect(jsonPath("$.itens[0].usuario").doesNotExist())
+                .andExpect(jsonPath("$.proximoCursor").value("def"));
+    }
+
+    @Test
+    public void testBuscarAbertos() throws Exception {
+        Mockito.when(emprestimoService.buscarAbertosUsuario(1L)).thenReturn(List.of(resumo));
+
+        mockMvc.perform(get("/api/emprestimos/usuario/1/abertos"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].dataDevolucao").doesNotExist());
+    }
+
+    @Test
+    public void testBuscarPorId() throws Exception {
+        Mockito.when(emprestimoService.buscarResumoPorId(7L)).thenReturn(resumo);
+
+        mockMvc.perform(get("/api/emprestimos/7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.livroId").value(2));
+    }
+
+    @Test
+    public void testCriar_semPipeline_gravaDireto() throws Exception {
+        Usuario usuario = new Usuario("João", "joao@email.com");
+        usuario.setId(1L);
+        Livro livro = new Livro("Spring Boot", "Autor B", 300);
+        livro.setId(2L);
+        Emprestimo salvo = new Emprestimo(usuario, livro, LocalDate.of(2024, 3, 1), null);
+        salvo.setId(7L);
+        Mockito.when(emprestimoService.criar(any())).thenReturn(salvo);
+
+        MvcResult resultado = mockMvc.perform(post("/api/emprestimos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"usuario\":{\"id\":1},\"livro\":{\"id\":2}}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.livroTitulo").value("Spring Boot"));
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.demo.unit;
+
+import com.example.demo.models.Emprestimo;
+import com.example.demo.models.Livro;
+import com.example.demo.models.Usuario;
+import com.example.demo.repositories.EmprestimoRepository;
+import com.example.demo.repositories.LivroRepository;
+import com.example.demo.repositories.UsuarioRepository;
+import com.example.demo.services.EmprestimoPipeline;
+import com.example.demo.services.EmprestimoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class EmprestimoPipelineTest {
+
+    @Mock
+    private EmprestimoRepository emprestimoRepository;
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private LivroRepository livroRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EmprestimoPipeline pipeline;
+    private Usuario usuario;
+    private Livro livro;
+
+    @BeforeEach
+    void setUp() {
+        usuario = new Usuario("João", "joao@email.com");
+        usuario.setId(1L);
+        livro = new Livro("Livro Teste", "Autor", 100);
+        livro.setId(1L);
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(livroRepository.findById(1L)).thenReturn(Optional.of(livro));
+        when(emprestimoRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        EmprestimoService service = new EmprestimoService(emprestimoRepository, usuarioRepository, livroRepository);
+        // lote de 10 com janela longa: 10 pedidos seguidos formam um único lote
+        pipeline = new EmprestimoPipeline(service, emprestimoRepository, transactionManager,
+                10, Duration.ofMillis(500), 100);
+        pipeline.iniciar();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.parar();
+    }
+
+    private Emprestimo pedido() {
+        return new Emprestimo(usuario, livro, LocalDate.now(), null);
+    }
+
+    @Test
+    void testEnviar_loteUnicoUmCommitERespeitaLimite() throws Exception {
+        when(emprestimoRepository.countByUsuarioAndDataDevolucaoIsNull(any())).thenReturn(3L);
+
+        List<CompletableFuture<Emprestimo>> futuros = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futuros.add(pipeline.enviar(pedido()));
+        }
+
+        int aceitos = 0;
+        int recusados = 0;
+        for (CompletableFuture<Emprestimo> f : futuros) {
+            try {
+                assertNotNull(f.get(5, TimeUnit.SECONDS));
+                aceitos++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(IllegalArgumentException.class, e.getCause());
+                recusados++;
+            }
+        }
+        assertEquals(2, aceitos);
+        assertEquals(8, recusados);
+        verify(emprestimoRepository, times(1)).countByUsuarioAndDataDevolucaoIsNull(any());
+        verify(emprestimoRepository, times(1)).saveAll(argThat(l -> ((List<?>) l).size() == 2));
+        verify(transactionManager, times(1)).commit(any());
+        verify(emprestimoRepository, never()).save(any());
+    }
+
+    @Test
+    void testEnviar_usuarioInexistente_falhaSoOProprioFuturo() throws Exception {
+        when(usuarioRepository.findById(2L)).thenReturn(Optional.empty());
+        when(emprestimoRepository.countByUsuarioAndDataDevolucaoIsNull(any())).thenReturn(0L);
+        Usuario inexistente = new Usuario("X", "x@email.com");
+        inexistente.setId(2L);
+
+        CompletableFuture<Emprestimo> invalido = pipeline.enviar(new Emprestimo(inexistente, livro, null, null));
+        CompletableFuture<Emprestimo> valido = pipeline.enviar(pedido());
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> invalido.get(5, TimeUnit.SECONDS));
+        assertEquals("Usuário não encontrado", e.getCause().getMessage());
+        assertNotNull(valido.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testEnviar_falhaNoLote_regravaItemAItem() throws Exception {
+        when(emprestimoRepository.countByUsuarioAndDataDevolucaoIsNull(any())).thenReturn(0L);
+        when(emprestimoRepository.saveAll(anyList())).thenThrow(new RuntimeException("Erro BD"));
+        when(emprestimoRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        CompletableFuture<Emprestimo> f = pipeline.enviar(pedido());
+
+        assertNotNull(f.get(5, TimeUnit.SECONDS));
+        verify(emprestimoRepository).save(any());
+    }
+
+    @Test
+    void testEnviar_depoisDeParar_gravaDireto() throws Exception {
+        when(emprestimoRepository.countByUsuarioAndDataDevolucaoIsNull(any())).thenReturn(0L);
+        when(emprestimoRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        pipeline.parar();
+
+        assertNotNull(pipeline.enviar(pedido()).get(5, TimeUnit.SECONDS));
+        verify(emprestimoRepository).save(any());
+        verify(emprestimoRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void testGravadoraInterrompida_novosPedidosNaoFicamPendentes() throws Exception {
+        when(emprestimoRepository.countByUsuarioAndDataDevolucaoIsNull(any())).thenReturn(0L);
+        when(emprestimoRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        Thread gravadora = Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.getName().equals("emprestimos-group-commit"))
+                .findFirst().orElseThrow();
+        gravadora.interrupt();
+        gravadora.join(5_000);
+        assertFalse(gravadora.isAlive());
+
+        assertNotNull(pipeline.enviar(pedido()).get(5, TimeUnit.SECONDS));
+        verify(emprestimoRepository).save(any());
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.demo.unit;
 
+import com.example.demo.dto.EmprestimoResumo;
 import com.example.demo.models.Emprestimo;
 import com.example.demo.models.Livro;
 import com.example.demo.models.Usuario;
@@ -8,14 +9,18 @@ import com.example.demo.repositories.LivroRepository;
 import com.example.demo.repositories.UsuarioRepository;
 import com.example.demo.services.AbstractService;
 import com.example.demo.services.EmprestimoService;
+import com.example.demo.services.Pagina;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -66,10 +71,9 @@ class EmprestimoServiceTest {
     @Test
     void testCriarEmprestimo_comVariosEmprestimosSimulados() {
         // simula 3 empréstimos abertos
-        List<Emprestimo> abertos = Arrays.asList(new Emprestimo(), new Emprestimo(), new Emprestimo());
         when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
         when(livroRepository.findById(1L)).thenReturn(Optional.of(livro));
-        when(emprestimoRepository.findByUsuarioAndDataDevolucaoIsNull(usuario)).thenReturn(abertos);
+        when(emprestimoRepository.countByUsuarioAndDataDevolucaoIsNull(usuario)).thenReturn(3L);
         when(emprestimoRepository.save(any())).thenReturn(emprestimo);
 
         Emprestimo criado = emprestimoService.criar(emprestimo);
@@ -80,13 +84,135 @@ class EmprestimoServiceTest {
     void testCriarEmprestimo_repositorioFalha() {
         when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
         when(livroRepository.findById(1L)).thenReturn(Optional.of(livro));
-        when(emprestimoRepository.findByUsuarioAndDataDevolucaoIsNull(usuario)).thenReturn(new ArrayList<>());
+        when(emprestimoRepository.countByUsuarioAndDataDevolucaoIsNull(usuario)).thenReturn(0L);
         when(emprestimoRepository.save(any())).thenThrow(new RuntimeException("Erro BD"));
 
         RuntimeException e = assertThrows(RuntimeException.class, () -> emprestimoService.criar(emprestimo));
         assertEquals("Erro BD", e.getMessage());
     }
 
+    @Test
+    void testCriarEmprestimo_limiteAtingido_naoCarregaLista() {
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(livroRepository.findById(1L)).thenReturn(Optional.of(livro));
+        when(emprestimoRepository.countByUsuarioAndDataDevolucaoIsNull(usuario)).thenReturn(5L);
+
+        assertThrows(IllegalArgumentException.class, () -> emprestimoService.criar(emprestimo));
+        verify(emprestimoRepository, never()).findByUsuarioAndDataDevolucaoIsNull(any());
+        verify(emprestimoRepository, never()).save(any());
+    }
+
+    @Test
+    void testValidar_contaAbertosSemGravar() {
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(livroRepository.findById(1L)).thenReturn(Optional.of(livro));
+        when(emprestimoRepository.countByUsuarioAndDataDevolucaoIsNull(usuario)).thenReturn(4L, 5L);
+
+        assertSame(usuario, emprestimoService.validar(emprestimo).getUsuario());
+        assertThrows(IllegalArgumentException.class, () -> emprestimoService.validar(emprestimo));
+        verify(emprestimoRepository, never()).save(any());
+    }
+
+    // ---------- Teste de concorrência ----------
+    @Test
+    void testCriarEmprestimo_64ConcorrentesMesmoUsuario_respeitaLimite() throws Exception {
+        int threads = 64;
+        // "banco" simulado: a contagem só enxerga o empréstimo depois do save
+        AtomicInteger abertos = new AtomicInteger();
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(livroRepository.findById(1L)).thenReturn(Optional.of(livro));
+        when(emprestimoRepository.countByUsuarioAndDataDevolucaoIsNull(usuario))
+                .thenAnswer(inv -> (long) abertos.get());
+        when(emprestimoRepository.save(any())).thenAnswer(inv -> {
+            Thread.sleep(1); // alarga a janela entre contagem e gravação
+            abertos.incrementAndGet();
+            return inv.getArgument(0);
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            resultados.add(pool.submit(() -> {
+                largada.await();
+                Emprestimo pedido = new Emprestimo(usuario, livro, LocalDate.now(), null);
+                try {
+                    emprestimoService.criar(pedido);
+                    return true;
+                } catch (IllegalArgumentException e) {
+                    return false;
+                }
+            }));
+        }
+        largada.countDown();
+
+        int aceitos = 0;
+        for (Future<Boolean> r : resultados) {
+            if (r.get(10, TimeUnit.SECONDS)) aceitos++;
+        }
+        pool.shutdown();
+
+        assertEquals(EmprestimoService.LIMITE_EMPRESTIMOS_ABERTOS, aceitos);
+        assertEquals(EmprestimoService.LIMITE_EMPRESTIMOS_ABERTOS, abertos.get());
+    }
+
+    // ---------- Leitura em DTO ----------
+    private EmprestimoResumo resumo(long id, LocalDate data) {
+        return new EmprestimoResumo(id, data, null, 1L, "João", 1L, "Livro Teste", "Autor");
+    }
+
+    @Test
+    void testBuscarHistoricoUsuario_primeiraPagina() {
+        LocalDate hoje = LocalDate.of(2024, 5, 10);
+        when(emprestimoRepository.buscarHistoricoUsuario(eq(1L), any()))
+                .thenReturn(List.of(resumo(9, hoje), resumo(8, hoje), resumo(5, hoje.minusDays(3))));
+
+        Pagina<EmprestimoResumo> pagina = emprestimoService.buscarHistoricoUsuario(1L, null, 2);
+
+        assertEquals(List.of(9L, 8L), pagina.itens().stream().map(EmprestimoResumo::id).toList());
+        assertNotNull(pagina.proximoCursor());
+        verify(emprestimoRepository).buscarHistoricoUsuario(1L, Limit.of(3));
+        verify(emprestimoRepository, never()).findByUsuario(any());
+        verifyNoInteractions(usuarioRepository, livroRepository);
+    }
+
+    @Test
+    void testBuscarHistoricoUsuario_cursorContinuaAposUltimoItem() {
+        LocalDate hoje = LocalDate.of(2024, 5, 10);
+        when(emprestimoRepository.buscarHistoricoUsuario(eq(1L), any()))
+                .thenReturn(List.of(resumo(9, hoje), resumo(8, hoje), resumo(5, hoje.minusDays(3))));
+        String cursor = emprestimoService.buscarHistoricoUsuario(1L, null, 2).proximoCursor();
+
+        when(emprestimoRepository.buscarHistoricoUsuarioAntes(eq(1L), eq(hoje), eq(8L), any()))
+                .thenReturn(List.of(resumo(5, hoje.minusDays(3))));
+        Pagina<EmprestimoResumo> segunda = emprestimoService.buscarHistoricoUsuario(1L, cursor, 2);
+
+        assertEquals(1, segunda.itens().size());
+        assertNull(segunda.proximoCursor());
+    }
+
+    @Test
+    void testBuscarHistoricoUsuario_cursorInvalido() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> emprestimoService.buscarHistoricoUsuario(1L, "lixo", 10));
+        assertEquals("Cursor inválido.", e.getMessage());
+    }
+
+    @Test
+    void testBuscarAbertosUsuario() {
+        when(emprestimoRepository.buscarAbertosUsuario(1L)).thenReturn(List.of(EmprestimoResumo.de(emprestimo)));
+
+        assertEquals(1, emprestimoService.buscarAbertosUsuario(1L).size());
+    }
+
+    @Test
+    void testBuscarResumoPorId_inexistente() {
+        when(emprestimoRepository.buscarResumoPorId(99L)).thenReturn(Optional.empty());
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> emprestimoService.buscarResumoPorId(99L));
+        assertEquals("Empréstimo não encontrado", e.getMessage());
+    }
+
     // ---------- Testes de Orientação a Objetos ----------
     static class TestAbstractService extends AbstractService<String, Long> {
         public String testCheckNotNull(Optional<String> value, String msg) {
@@ -108,6 +234,11 @@ class EmprestimoServiceTest {
             return List.of();
         }
 
+        @Override
+        public Pagina<String> buscarPagina(String cursor, int tamanho) {
+            return new Pagina<>(List.of(), null);
+        }
+
         @Override
         public String atualizar(Long aLong, String entity) {
             return "";
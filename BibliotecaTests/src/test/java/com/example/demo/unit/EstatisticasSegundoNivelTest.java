@@ -0,0 +1,116 @@
+package com.example.demo.unit;
+
+import com.example.demo.cache.EstatisticasCache;
+import com.example.demo.cache.EstatisticasSegundoNivel;
+import com.example.demo.config.SegundoNivelCacheConfig;
+import com.example.demo.models.CatalogoVersao;
+import com.example.demo.models.Emprestimo;
+import com.example.demo.models.Livro;
+import com.example.demo.models.Usuario;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EstatisticasSegundoNivelTest {
+
+    @Test
+    void testRegioes_convertemContadoresDoHibernate() {
+        EntityManagerFactory emf = mock(EntityManagerFactory.class);
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        Statistics estatisticas = mock(Statistics.class);
+        CacheRegionStatistics livros = mock(CacheRegionStatistics.class);
+        CacheRegionStatistics usuarios = mock(CacheRegionStatistics.class);
+        when(emf.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getStatistics()).thenReturn(estatisticas);
+        when(estatisticas.isStatisticsEnabled()).thenReturn(true);
+        when(estatisticas.getDomainDataRegionStatistics("livros")).thenReturn(livros);
+        when(estatisticas.getDomainDataRegionStatistics("usuarios")).thenReturn(usuarios);
+        when(livros.getHitCount()).thenReturn(9L);
+        when(livros.getMissCount()).thenReturn(1L);
+        when(livros.getElementCountInMemory()).thenReturn(5L);
+        when(usuarios.getElementCountInMemory()).thenReturn(Long.MIN_VALUE);
+        when(estatisticas.getQueryCacheHitCount()).thenReturn(3L);
+        when(estatisticas.getQueryCacheMissCount()).thenReturn(1L);
+
+        List<EstatisticasCache> regioes = new EstatisticasSegundoNivel(emf).regioes();
+
+        assertEquals(List.of("hibernate-livros", "hibernate-usuarios", "hibernate-consultas"),
+                regioes.stream().map(EstatisticasCache::nome).toList());
+        assertEquals(0.9, regioes.get(0).taxaAcerto(), 1e-9);
+        assertEquals(5, regioes.get(0).tamanho());
+        assertEquals(0, regioes.get(1).tamanho()); // provedor sem contagem
+        assertEquals(0.75, regioes.get(2).taxaAcerto(), 1e-9);
+    }
+
+    @Test
+    void testRegioes_estatisticasDesligadas_informaEmVezDeZerar() {
+        EntityManagerFactory emf = mock(EntityManagerFactory.class);
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        Statistics estatisticas = mock(Statistics.class);
+        when(emf.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getStatistics()).thenReturn(estatisticas);
+
+        List<EstatisticasCache> regioes = new EstatisticasSegundoNivel(emf).regioes();
+
+        assertEquals(List.of(EstatisticasSegundoNivel.DESLIGADAS), regioes.stream().map(EstatisticasCache::nome).toList());
+        verify(estatisticas, never()).getDomainDataRegionStatistics(any());
+    }
+
+    @Test
+    void testSegundoFindById_eAcertoNoSegundoNivel() {
+        // mesmo mapeamento, regiões e propriedades de application.properties, num H2 migrado pelo Flyway
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:segundo-nivel" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        Flyway.configure().dataSource(dataSource)
+                .locations("classpath:db/migration/comum", "classpath:db/migration/h2").load().migrate();
+        CacheManager regioes = new SegundoNivelCacheConfig()
+                .cacheManagerSegundoNivel(100, 100, 100, Duration.ofMinutes(10), Duration.ofMinutes(10));
+        StandardServiceRegistryBuilder registro = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, dataSource)
+                .applySetting(AvailableSettings.PHYSICAL_NAMING_STRATEGY, CamelCaseToUnderscoresNamingStrategy.class.getName())
+                .applySetting(AvailableSettings.USE_SECOND_LEVEL_CACHE, true)
+                .applySetting(AvailableSettings.USE_QUERY_CACHE, true)
+                .applySetting(AvailableSettings.CACHE_REGION_FACTORY, "jcache")
+                .applySetting(ConfigSettings.CACHE_MANAGER, regioes)
+                .applySetting(AvailableSettings.GENERATE_STATISTICS, true);
+        try (regioes; SessionFactory fabrica = new MetadataSources(registro.build())
+                .addAnnotatedClass(Livro.class).addAnnotatedClass(Usuario.class)
+                .addAnnotatedClass(Emprestimo.class).addAnnotatedClass(CatalogoVersao.class)
+                .buildMetadata().buildSessionFactory()) {
+            Long id = fabrica.fromTransaction(s -> {
+                Livro livro = new Livro("Dom Casmurro", "Machado", 200);
+                s.persist(livro);
+                return livro.getId();
+            });
+            fabrica.getCache().evictAllRegions();
+            fabrica.getStatistics().clear();
+
+            assertEquals("Dom Casmurro", fabrica.fromTransaction(s -> s.find(Livro.class, id)).getTitulo());
+            assertEquals("Dom Casmurro", fabrica.fromTransaction(s -> s.find(Livro.class, id)).getTitulo());
+
+            EstatisticasCache livros = new EstatisticasSegundoNivel(fabrica).regioes().get(0);
+            assertEquals("hibernate-livros", livros.nome());
+            assertEquals(1, livros.falhas());
+            assertEquals(1, livros.acertos());
+            // o segundo find não foi ao banco
+            assertEquals(1, fabrica.getStatistics().getEntityLoadCount());
+        }
+    }
+}
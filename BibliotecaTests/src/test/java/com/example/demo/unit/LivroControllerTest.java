@@ -1,9 +1,17 @@
 package com.example.demo.unit;
 
+import com.example.demo.config.FormatosBinariosConfig;
 import com.example.demo.controllers.LivroController;
+import com.example.demo.dto.VersaoCatalogo;
 import com.example.demo.models.Livro;
+import com.example.demo.services.LivroLoteService;
 import com.example.demo.services.LivroService;
+import com.example.demo.services.Pagina;
+import com.example.demo.services.ResultadoLote;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -11,18 +19,26 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(LivroController.class)
+@Import(FormatosBinariosConfig.class)
 public class LivroControllerTest {
 
     @Autowired
@@ -31,6 +47,9 @@ public class LivroControllerTest {
     @MockBean
     private LivroService livroService;
 
+    @MockBean
+    private LivroLoteService livroLoteService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -64,6 +83,20 @@ public class LivroControllerTest {
                 .andExpect(jsonPath("$.titulo").value("Java Básico"));
     }
 
+    @Test
+    public void testCriarEmLote() throws Exception {
+        ResultadoLote resultado = new ResultadoLote(2, 1,
+                List.of(new ResultadoLote.ErroItem(1, "Título, autor e páginas devem ser válidos.")));
+        Mockito.when(livroLoteService.criarEmLote(any())).thenReturn(resultado);
+
+        mockMvc.perform(post("/api/livros/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(livro1, new Livro()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inseridos").value(1))
+                .andExpect(jsonPath("$.erros[0].indice").value(1));
+    }
+
     @Test
     public void testBuscarPorId() throws Exception {
         Mockito.when(livroService.buscarPorId(1L)).thenReturn(livro1);
@@ -77,12 +110,154 @@ public class LivroControllerTest {
     public void testBuscarTodos() throws Exception {
         List<Livro> livros = Arrays.asList(livro1, livro2);
         Mockito.when(livroService.buscarTodos()).thenReturn(livros);
+        Mockito.when(livroService.buscarVersaoCatalogo()).thenReturn(new VersaoCatalogo(7L));
 
         mockMvc.perform(get("/api/livros"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"catalogo-7\""))
                 .andExpect(jsonPath("$.length()").value(2));
     }
 
+    @Test
+    public void testBuscarPorId_emiteEtagELastModified() throws Exception {
+        livro1.setVersao(3L);
+        livro1.setAtualizadoEm(Instant.parse("2024-05-10T12:00:00Z"));
+        Mockito.when(livroService.buscarPorId(1L)).thenReturn(livro1);
+
+        mockMvc.perform(get("/api/livros/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(header().exists("Last-Modified"));
+    }
+
+    @Test
+    public void testBuscarPorId_ifNoneMatchIgual_304SemCarregarLivro() throws Exception {
+        Mockito.when(livroService.buscarVersao(1L)).thenReturn(3L);
+
+        mockMvc.perform(get("/api/livros/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        Mockito.verify(livroService, Mockito.never()).buscarPorId(any());
+    }
+
+    @Test
+    public void testBuscarPorId_ifNoneMatchDiferente_200() throws Exception {
+        livro1.setVersao(4L);
+        Mockito.when(livroService.buscarVersao(1L)).thenReturn(4L);
+        Mockito.when(livroService.buscarPorId(1L)).thenReturn(livro1);
+
+        mockMvc.perform(get("/api/livros/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    public void testBuscarTodos_ifNoneMatchIgual_304SemBuscarCatalogo() throws Exception {
+        Mockito.when(livroService.buscarVersaoCatalogo()).thenReturn(new VersaoCatalogo(9L));
+
+        mockMvc.perform(get("/api/livros").header("If-None-Match", "\"catalogo-9\""))
+                .andExpect(status().isNotModified());
+
+        Mockito.verify(livroService, Mockito.never()).buscarTodos();
+    }
+
+    // ---------- Negociação de formato (Accept) ----------
+    @Test
+    public void testBuscarTodos_acceptCbor() throws Exception {
+        Mockito.when(livroService.buscarTodos()).thenReturn(Arrays.asList(livro1, livro2));
+        Mockito.when(livroService.buscarVersaoCatalogo()).thenReturn(new VersaoCatalogo(7L));
+
+        MvcResult resultado = mockMvc.perform(get("/api/livros").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string("Vary", "Accept"))
+                .andReturn();
+
+        List<Livro> lidos = new CBORMapper().readValue(resultado.getResponse().getContentAsByteArray(),
+                new TypeReference<List<Livro>>() { });
+        assertEquals(2, lidos.size());
+        assertEquals("Java Básico", lidos.get(0).getTitulo());
+    }
+
+    @Test
+    public void testBuscarPorId_acceptSmile() throws Exception {
+        Mockito.when(livroService.buscarPorId(1L)).thenReturn(livro1);
+
+        MvcResult resultado = mockMvc.perform(get("/api/livros/1").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn();
+
+        Livro lido = new SmileMapper().readValue(resultado.getResponse().getContentAsByteArray(), Livro.class);
+        assertEquals("Autor A", lido.getAutor());
+    }
+
+    @Test
+    public void testCriarLivro_corpoCbor() throws Exception {
+        Mockito.when(livroService.criar(any())).thenReturn(livro1);
+
+        mockMvc.perform(post("/api/livros")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .content(new CBORMapper().writeValueAsBytes(livro1)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.titulo").value("Java Básico"));
+    }
+
+    @Test
+    public void testBuscarPagina() throws Exception {
+        Mockito.when(livroService.buscarPagina(null, 2)).thenReturn(new Pagina<>(Arrays.asList(livro1, livro2), "Mg"));
+
+        mockMvc.perform(get("/api/livros/pagina").param("tamanho", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens.length()").value(2))
+                .andExpect(jsonPath("$.proximoCursor").value("Mg"));
+    }
+
+    @Test
+    public void testBuscarPaginaPorTitulo() throws Exception {
+        Mockito.when(livroService.buscarPaginaPorTitulo("abc", 20)).thenReturn(new Pagina<>(List.of(livro2), null));
+
+        mockMvc.perform(get("/api/livros/pagina").param("cursor", "abc").param("ordem", "titulo"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens[0].titulo").value("Spring Boot"));
+    }
+
+    @Test
+    public void testExportarNdjson() throws Exception {
+        Mockito.when(livroService.exportarTodos(any())).thenAnswer(inv -> {
+            Consumer<Livro> consumidor = inv.getArgument(0);
+            consumidor.accept(livro1);
+            consumidor.accept(livro2);
+            return 2L;
+        });
+
+        MvcResult resultado = mockMvc.perform(get("/api/livros/exportar"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // limite próprio da exportação, não o padrão global das requisições assíncronas
+        assertEquals(Duration.ofMinutes(30).toMillis(), resultado.getRequest().getAsyncContext().getTimeout());
+
+        String corpo = mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] linhas = corpo.split("\n");
+        assertEquals(2, linhas.length);
+        assertEquals("Java Básico", objectMapper.readTree(linhas[0]).get("titulo").asText());
+        assertEquals(2L, objectMapper.readTree(linhas[1]).get("id").asLong());
+    }
+
+    @Test
+    public void testBuscarPorAutor() throws Exception {
+        Mockito.when(livroService.buscarPorAutorOrdenado("Autor A", false)).thenReturn(List.of(livro1));
+
+        mockMvc.perform(get("/api/livros/autor").param("autor", "Autor A").param("ascendente", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].titulo").value("Java Básico"));
+    }
+
     @Test
     public void testAtualizarLivro() throws Exception {
         Livro atualizado = new Livro();
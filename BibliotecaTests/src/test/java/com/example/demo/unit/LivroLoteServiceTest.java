@@ -0,0 +1,90 @@
+package com.example.demo.unit;
+
+import com.example.demo.models.Livro;
+import com.example.demo.repositories.ContextoPersistencia;
+import com.example.demo.repositories.LivroRepository;
+import com.example.demo.services.LivroLoteService;
+import com.example.demo.services.LivroService;
+import com.example.demo.services.ResultadoLote;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LivroLoteServiceTest {
+
+    @Mock
+    private LivroRepository livroRepository;
+
+    @Mock
+    private ContextoPersistencia contextoPersistencia;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LivroLoteService livroLoteService;
+
+    @BeforeEach
+    void setUp() {
+        livroLoteService = new LivroLoteService(new LivroService(livroRepository), livroRepository,
+                contextoPersistencia, transactionManager);
+    }
+
+    @Test
+    void testCriarEmLote_reportaInvalidosEGravaValidos() {
+        List<Livro> livros = List.of(
+                new Livro("Livro A", "Autor A", 100),
+                new Livro("", "Autor B", 100),
+                new Livro("Livro C", "Autor C", 0),
+                new Livro("Livro D", "Autor D", 50));
+
+        ResultadoLote resultado = livroLoteService.criarEmLote(livros);
+
+        assertEquals(4, resultado.recebidos());
+        assertEquals(2, resultado.inseridos());
+        assertEquals(List.of(1, 2), resultado.erros().stream().map(ResultadoLote.ErroItem::indice).toList());
+        verify(livroRepository).saveAll(List.of(livros.get(0), livros.get(3)));
+        verify(contextoPersistencia).descarregar();
+    }
+
+    @Test
+    void testCriarEmLote_divideEmBlocos() {
+        List<Livro> livros = new ArrayList<>();
+        for (int i = 0; i < LivroLoteService.TAMANHO_BLOCO * 2 + 1; i++) {
+            livros.add(new Livro("Livro " + i, "Autor", 10));
+        }
+
+        ResultadoLote resultado = livroLoteService.criarEmLote(livros);
+
+        assertEquals(livros.size(), resultado.inseridos());
+        assertTrue(resultado.erros().isEmpty());
+        verify(livroRepository, times(3)).saveAll(anyList());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void testCriarEmLote_falhaNoBanco_reportaItensDoBloco() {
+        when(livroRepository.saveAll(anyList())).thenThrow(new RuntimeException("Erro BD"));
+
+        ResultadoLote resultado = livroLoteService.criarEmLote(List.of(new Livro("Livro A", "Autor A", 100)));
+
+        assertEquals(0, resultado.inseridos());
+        assertEquals(1, resultado.erros().size());
+        assertTrue(resultado.erros().get(0).mensagem().contains("Erro BD"));
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void testCriarEmLote_listaNula_deveLancar() {
+        assertThrows(IllegalArgumentException.class, () -> livroLoteService.criarEmLote(null));
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.demo.unit;
 
+import com.example.demo.cache.CacheEntidade;
 import com.example.demo.models.Livro;
 import com.example.demo.repositories.LivroRepository;
 import com.example.demo.services.LivroService;
+import com.example.demo.services.Pagina;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -10,7 +12,10 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Stream;
 
@@ -23,13 +28,13 @@ class LivroServiceTest {
     @Mock
     private LivroRepository livroRepository;
 
-    @InjectMocks
     private LivroService livroService;
 
     private Livro sampleLivro;
 
     @BeforeEach
     void setUp() {
+        livroService = new LivroService(livroRepository);
         sampleLivro = new Livro();
         sampleLivro.setId(1L);
         sampleLivro.setTitulo("Dom Quixote");
@@ -68,6 +73,24 @@ class LivroServiceTest {
         verify(livroRepository).save(any());
     }
 
+    @Test
+    void testEscritas_incrementamVersaoDoCatalogoDepoisDeGravar() {
+        when(livroRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(livroRepository.findById(1L)).thenReturn(Optional.of(sampleLivro));
+
+        livroService.criar(new Livro("Novo", "Autor", 10));
+        livroService.atualizar(1L, new Livro("Outro", "Autor", 10));
+        livroService.deletar(1L);
+
+        InOrder ordem = inOrder(livroRepository);
+        ordem.verify(livroRepository).save(any());
+        ordem.verify(livroRepository).incrementarVersaoCatalogo();
+        ordem.verify(livroRepository).save(any());
+        ordem.verify(livroRepository).incrementarVersaoCatalogo();
+        ordem.verify(livroRepository).deleteById(1L);
+        ordem.verify(livroRepository).incrementarVersaoCatalogo();
+    }
+
     @ParameterizedTest
     @MethodSource("invalidLivros")
     void testCriarLivro_invalido_deveLancar(Livro invalido) {
@@ -89,6 +112,152 @@ class LivroServiceTest {
         assertThrows(RuntimeException.class, () -> livroService.buscarPorId(99L));
     }
 
+    @Test
+    void testBuscarPorId_comCache_consultaBancoUmaVez() {
+        livroService.setCache(new CacheEntidade<>("livros", 10, Duration.ofMinutes(1)));
+        when(livroRepository.findById(1L)).thenReturn(Optional.of(sampleLivro));
+
+        livroService.buscarPorId(1L);
+        livroService.buscarPorId(1L);
+
+        verify(livroRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testAtualizar_comCache_invalidaEntrada() {
+        CacheEntidade<Long, Livro> cache = new CacheEntidade<>("livros", 10, Duration.ofMinutes(1));
+        livroService.setCache(cache);
+        when(livroRepository.findById(1L)).thenReturn(Optional.of(sampleLivro));
+        when(livroRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        livroService.buscarPorId(1L);
+        livroService.atualizar(1L, new Livro("Novo Título", "Autor", 10));
+
+        assertTrue(cache.consultar(1L).isEmpty());
+    }
+
+    @Test
+    void testDeletar_comCache_invalidaEntrada() {
+        CacheEntidade<Long, Livro> cache = new CacheEntidade<>("livros", 10, Duration.ofMinutes(1));
+        livroService.setCache(cache);
+        cache.guardar(1L, sampleLivro);
+
+        livroService.deletar(1L);
+
+        assertTrue(cache.consultar(1L).isEmpty());
+    }
+
+    @Test
+    void testDeletar_buscaConcorrenteDuranteODelete_naoDeixaLivroNoCache() {
+        CacheEntidade<Long, Livro> cache = new CacheEntidade<>("livros", 10, Duration.ofMinutes(1));
+        livroService.setCache(cache);
+        // uma busca concorrente lê a linha ainda presente e a recoloca no cache
+        doAnswer(inv -> {
+            cache.guardar(1L, sampleLivro);
+            return null;
+        }).when(livroRepository).deleteById(1L);
+
+        livroService.deletar(1L);
+
+        assertTrue(cache.consultar(1L).isEmpty());
+    }
+
+    // ---------- Testes buscarVersao (revalidação de ETag) ----------
+    @Test
+    void testBuscarVersao_semCache_consultaSoAVersao() {
+        when(livroRepository.buscarVersao(1L)).thenReturn(Optional.of(7L));
+
+        assertEquals(7L, livroService.buscarVersao(1L));
+        verify(livroRepository, never()).findById(any());
+    }
+
+    @Test
+    void testBuscarVersao_livroEmCache_naoConsultaBanco() {
+        CacheEntidade<Long, Livro> cache = new CacheEntidade<>("livros", 10, Duration.ofMinutes(1));
+        livroService.setCache(cache);
+        sampleLivro.setVersao(2L);
+        cache.guardar(1L, sampleLivro);
+
+        assertEquals(2L, livroService.buscarVersao(1L));
+        verifyNoInteractions(livroRepository);
+        // revalidação de ETag não conta como acerto nem falha do cache
+        assertEquals(0, cache.estatisticas().acertos() + cache.estatisticas().falhas());
+    }
+
+    @Test
+    void testBuscarVersao_inexistente() {
+        when(livroRepository.buscarVersao(99L)).thenReturn(Optional.empty());
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> livroService.buscarVersao(99L));
+        assertEquals("Livro não encontrado", e.getMessage());
+    }
+
+    // ---------- Testes buscarPorAutorOrdenado (índice em memória) ----------
+    @Test
+    void testBuscarPorAutorOrdenado_carregaUmaVezEAtendeAscEDesc() {
+        when(livroRepository.findByAutorOrderByTituloAsc("Autor"))
+                .thenReturn(List.of(livroComId(2, "Árvore"), livroComId(1, "Banana"), livroComId(3, "casa")));
+
+        List<Livro> asc = livroService.buscarPorAutorOrdenado("Autor", true);
+        List<Livro> desc = livroService.buscarPorAutorOrdenado("Autor", false);
+
+        assertEquals(List.of("Árvore", "Banana", "casa"), asc.stream().map(Livro::getTitulo).toList());
+        assertEquals(List.of("casa", "Banana", "Árvore"), desc.stream().map(Livro::getTitulo).toList());
+        verify(livroRepository, times(1)).findByAutorOrderByTituloAsc("Autor");
+    }
+
+    @Test
+    void testBuscarPorAutorOrdenado_mantidoPorCriarAtualizarDeletar() {
+        when(livroRepository.findByAutorOrderByTituloAsc("Autor")).thenReturn(List.of(livroComId(1, "Banana")));
+        livroService.buscarPorAutorOrdenado("Autor", true);
+
+        Livro novo = livroComId(2, "Abacate");
+        when(livroRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        livroService.criar(novo);
+        assertEquals(List.of("Abacate", "Banana"),
+                livroService.buscarPorAutorOrdenado("Autor", true).stream().map(Livro::getTitulo).toList());
+
+        // troca de autor remove o livro do índice antigo
+        when(livroRepository.findById(1L)).thenReturn(Optional.of(livroComId(1, "Banana")));
+        livroService.atualizar(1L, new Livro("Banana", "Outro Autor", 100));
+        assertEquals(List.of("Abacate"),
+                livroService.buscarPorAutorOrdenado("Autor", true).stream().map(Livro::getTitulo).toList());
+
+        livroService.deletar(2L);
+        assertTrue(livroService.buscarPorAutorOrdenado("Autor", true).isEmpty());
+        verify(livroRepository, times(1)).findByAutorOrderByTituloAsc("Autor");
+    }
+
+    @Test
+    void testBuscarPorAutorOrdenado_autorSemLivros_naoFicaNoIndice() {
+        when(livroRepository.findByAutorOrderByTituloAsc("Ninguém")).thenReturn(List.of());
+
+        assertTrue(livroService.buscarPorAutorOrdenado("Ninguém", true).isEmpty());
+        assertTrue(livroService.buscarPorAutorOrdenado("Ninguém", true).isEmpty());
+
+        verify(livroRepository, times(2)).findByAutorOrderByTituloAsc("Ninguém");
+    }
+
+    @Test
+    void testBuscarPorAutorOrdenado_limitaAutoresCarregados() {
+        LivroService livroService = new LivroService(livroRepository, TransactionOperations.withoutTransaction(), 2, Duration.ofMinutes(1));
+        for (String autor : List.of("A", "B", "C")) {
+            when(livroRepository.findByAutorOrderByTituloAsc(autor)).thenReturn(List.of(livroComId(1, "Título " + autor)));
+            livroService.buscarPorAutorOrdenado(autor, true);
+        }
+
+        livroService.buscarPorAutorOrdenado("C", true);
+        livroService.buscarPorAutorOrdenado("A", true); // saiu pelo LRU: carrega de novo
+
+        verify(livroRepository, times(1)).findByAutorOrderByTituloAsc("C");
+        verify(livroRepository, times(2)).findByAutorOrderByTituloAsc("A");
+    }
+
+    @Test
+    void testBuscarPorAutorOrdenado_autorVazio_deveLancar() {
+        assertThrows(IllegalArgumentException.class, () -> livroService.buscarPorAutorOrdenado(" ", true));
+    }
+
     // ---------- Testes buscarTodos ----------
     @Test
     void testBuscarTodos() {
@@ -99,6 +268,58 @@ class LivroServiceTest {
         assertEquals(2, resultado.size());
     }
 
+    // ---------- Testes buscarPagina (cursor) ----------
+    private static Livro livroComId(long id, String titulo) {
+        Livro l = new Livro(titulo, "Autor", 100);
+        l.setId(id);
+        return l;
+    }
+
+    @Test
+    void testBuscarPagina_primeiraPagina_retornaCursor() {
+        when(livroRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3)))
+                .thenReturn(List.of(livroComId(1, "A"), livroComId(2, "B"), livroComId(3, "C")));
+
+        Pagina<Livro> pagina = livroService.buscarPagina(null, 2);
+
+        assertEquals(2, pagina.itens().size());
+        assertNotNull(pagina.proximoCursor());
+
+        // o cursor devolvido continua a partir do último id da página
+        when(livroRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(3)))
+                .thenReturn(List.of(livroComId(3, "C")));
+        Pagina<Livro> seguinte = livroService.buscarPagina(pagina.proximoCursor(), 2);
+        assertEquals(1, seguinte.itens().size());
+        assertNull(seguinte.proximoCursor());
+    }
+
+    @Test
+    void testBuscarPagina_tamanhoLimitadoAoMaximo() {
+        when(livroRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(List.of());
+
+        livroService.buscarPagina(null, 10_000);
+
+        verify(livroRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(LivroService.TAMANHO_PAGINA_MAXIMO + 1));
+    }
+
+    @Test
+    void testBuscarPagina_cursorInvalido_deveLancar() {
+        assertThrows(IllegalArgumentException.class, () -> livroService.buscarPagina("@@@", 10));
+    }
+
+    @Test
+    void testBuscarPaginaPorTitulo_usaTituloEIdDoCursor() {
+        when(livroRepository.findAllByOrderByTituloAscIdAsc(Limit.of(2)))
+                .thenReturn(List.of(livroComId(7, "Dom Casmurro"), livroComId(3, "Iracema")));
+
+        Pagina<Livro> pagina = livroService.buscarPaginaPorTitulo(null, 1);
+        assertEquals("Dom Casmurro", pagina.itens().get(0).getTitulo());
+
+        when(livroRepository.buscarAposTitulo("Dom Casmurro", 7L, Limit.of(2))).thenReturn(List.of(livroComId(3, "Iracema")));
+        Pagina<Livro> seguinte = livroService.buscarPaginaPorTitulo(pagina.proximoCursor(), 1);
+        assertEquals("Iracema", seguinte.itens().get(0).getTitulo());
+        assertNull(seguinte.proximoCursor());
+    }
 
     @Test
     void testAtualizarLivro_naoExistente() {
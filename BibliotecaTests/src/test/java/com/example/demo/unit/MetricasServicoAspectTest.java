@@ -0,0 +1,88 @@
+package com.example.demo.unit;
+
+import com.example.demo.metricas.MetricasServicoAspect;
+import com.example.demo.models.Livro;
+import com.example.demo.repositories.LivroRepository;
+import com.example.demo.services.GenericService;
+import com.example.demo.services.LivroService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MetricasServicoAspectTest {
+
+    @Mock
+    private LivroRepository livroRepository;
+
+    private SimpleMeterRegistry registry;
+    private GenericService<Livro, Long> servico;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        AspectJProxyFactory fabrica = new AspectJProxyFactory(new LivroService(livroRepository));
+        fabrica.addAspect(new MetricasServicoAspect(registry));
+        servico = fabrica.getProxy();
+    }
+
+    private Timer timer(String operacao, String resultado) {
+        return registry.find(MetricasServicoAspect.METRICA_OPERACAO)
+                .tags("entidade", "livro", "operacao", operacao, "resultado", resultado)
+                .timer();
+    }
+
+    @Test
+    void deveMedirOperacoesComSucesso() {
+        Livro livro = new Livro("Dom Quixote", "Miguel de Cervantes", 500);
+        livro.setId(1L);
+        when(livroRepository.findById(1L)).thenReturn(Optional.of(livro));
+
+        assertEquals("Dom Quixote", servico.buscarPorId(1L).getTitulo());
+        servico.buscarPorId(1L);
+
+        Timer t = timer("buscarPorId", "sucesso");
+        assertNotNull(t);
+        assertEquals(2, t.count());
+        // o timer de erro é registrado junto com o de sucesso, mas sem medições
+        assertEquals(0, timer("buscarPorId", "erro").count());
+    }
+
+    @Test
+    void deveContarErrosPorTipoDeExcecao() {
+        assertThrows(IllegalArgumentException.class, () -> servico.criar(new Livro("", "Autor", 10)));
+
+        assertEquals(1, timer("criar", "erro").count());
+        Counter erros = registry.find(MetricasServicoAspect.METRICA_ERROS)
+                .tags("entidade", "livro", "operacao", "criar", "excecao", "IllegalArgumentException")
+                .counter();
+        assertNotNull(erros);
+        assertEquals(1.0, erros.count());
+        verify(livroRepository, never()).save(any());
+    }
+
+    @Test
+    void deveReaproveitarOsMedidoresEntreChamadas() {
+        when(livroRepository.findAll()).thenReturn(List.of());
+
+        for (int i = 0; i < 10; i++) {
+            servico.buscarTodos();
+        }
+
+        assertEquals(10, timer("buscarTodos", "sucesso").count());
+        assertEquals(1, registry.find(MetricasServicoAspect.METRICA_OPERACAO)
+                .tags("operacao", "buscarTodos", "resultado", "sucesso").timers().size());
+    }
+}
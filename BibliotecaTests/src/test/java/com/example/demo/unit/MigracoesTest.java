@@ -0,0 +1,120 @@
+package com.example.demo.unit;
+
+import com.example.demo.models.CatalogoVersao;
+import com.example.demo.models.Emprestimo;
+import com.example.demo.models.Livro;
+import com.example.demo.models.Usuario;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Migrações de db/migration (comum + h2) aplicadas num H2 em memória, como nos testes e benchmarks.
+ */
+class MigracoesTest {
+
+    private JdbcDataSource dataSource;
+    private Flyway flyway;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:migracoes" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        flyway = Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/comum", "classpath:db/migration/h2")
+                .load();
+        flyway.migrate();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection c = dataSource.getConnection(); Statement st = c.createStatement()) {
+            st.execute("SHUTDOWN");
+        }
+    }
+
+    private Set<String> indices(String tabela) throws SQLException {
+        Set<String> nomes = new HashSet<>();
+        try (Connection c = dataSource.getConnection();
+             ResultSet rs = c.getMetaData().getIndexInfo(null, null, tabela.toUpperCase(Locale.ROOT), false, false)) {
+            while (rs.next()) {
+                String nome = rs.getString("INDEX_NAME");
+                if (nome != null) {
+                    nomes.add(nome.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return nomes;
+    }
+
+    @Test
+    void testMigracao_criaIndicesDasConsultas() throws SQLException {
+        // findByAutorOrderByTitulo* e buscarVersoesAtualizadasApos
+        Set<String> livros = indices("livros");
+        assertTrue(livros.containsAll(Set.of("idx_livros_autor_titulo", "idx_livros_atualizado_em")), livros::toString);
+        // findByEmail e findByEmailNormalizado (índice da constraint única) e buscarVersoesAtualizadasApos
+        Set<String> usuarios = indices("usuarios");
+        assertTrue(usuarios.containsAll(Set.of("idx_usuarios_email", "idx_usuarios_atualizado_em")), usuarios::toString);
+        assertTrue(usuarios.stream().anyMatch(n -> n.startsWith(Usuario.UK_EMAIL)), usuarios::toString);
+        // findByUsuarioAndDataDevolucaoIsNull, histórico por data e FK de livro
+        Set<String> emprestimos = indices("emprestimos");
+        assertTrue(emprestimos.containsAll(Set.of(
+                "idx_emprestimos_abertos", "idx_emprestimos_usuario_data", "idx_emprestimos_livro")), emprestimos::toString);
+    }
+
+    @Test
+    void testMigracao_criaVersaoDoCatalogo() throws SQLException {
+        try (Connection c = dataSource.getConnection(); Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT id, versao FROM catalogo_versao")) {
+            assertTrue(rs.next());
+            assertEquals(CatalogoVersao.ID, rs.getInt("id"));
+            assertEquals(0L, rs.getLong("versao"));
+            assertFalse(rs.next());
+        }
+    }
+
+    @Test
+    void testMigracao_segundaExecucaoNaoAplicaNada() {
+        assertEquals(0, flyway.migrate().migrationsExecuted);
+        assertEquals("5", flyway.info().current().getVersion().getVersion());
+    }
+
+    @Test
+    void testMigracao_schemaConfereComMapeamentoJpa() {
+        // mesma checagem de spring.jpa.hibernate.ddl-auto=validate na subida
+        StandardServiceRegistry registro = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, dataSource)
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "validate")
+                // nomes de coluna como o Spring Boot gera (dataDevolucao -> data_devolucao)
+                .applySetting(AvailableSettings.PHYSICAL_NAMING_STRATEGY, CamelCaseToUnderscoresNamingStrategy.class.getName())
+                .build();
+        MetadataSources fontes = new MetadataSources(registro)
+                .addAnnotatedClass(Livro.class)
+                .addAnnotatedClass(Usuario.class)
+                .addAnnotatedClass(Emprestimo.class)
+                .addAnnotatedClass(CatalogoVersao.class);
+        try (SessionFactory fabrica = assertDoesNotThrow(() -> fontes.buildMetadata().buildSessionFactory())) {
+            assertTrue(fabrica.isOpen());
+        }
+    }
+}
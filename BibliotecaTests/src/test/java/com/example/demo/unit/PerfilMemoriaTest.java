@@ -0,0 +1,81 @@
+package com.example.demo.unit;
+
+import com.example.demo.models.Emprestimo;
+import com.example.demo.models.Livro;
+import com.example.demo.models.Usuario;
+import com.example.demo.repositories.ContextoPersistencia;
+import com.example.demo.repositories.LivroRepository;
+import com.example.demo.repositories.memoria.ContextoPersistenciaMemoria;
+import com.example.demo.repositories.memoria.LivroRepositoryMemoria;
+import com.example.demo.services.EmprestimoService;
+import com.example.demo.services.LivroLoteService;
+import com.example.demo.services.LivroService;
+import com.example.demo.services.ResultadoLote;
+import com.example.demo.services.UsuarioService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Subida da aplicação no perfil memoria, sem banco, e os serviços sobre os repositórios em memória.
+ */
+@SpringBootTest(properties = "spring.profiles.active=memoria")
+class PerfilMemoriaTest {
+
+    @Autowired
+    private ApplicationContext contexto;
+
+    @Autowired
+    private LivroService livroService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @Autowired
+    private LivroLoteService livroLoteService;
+
+    @Test
+    void testSubida_repositoriosEmMemoriaSemJpa() {
+        assertEquals(LivroRepositoryMemoria.class,
+                AopProxyUtils.ultimateTargetClass(contexto.getBean(LivroRepository.class)));
+        assertEquals(ContextoPersistenciaMemoria.class,
+                AopProxyUtils.ultimateTargetClass(contexto.getBean(ContextoPersistencia.class)));
+        assertEquals(0, contexto.getBeanNamesForType(DataSource.class).length);
+        assertEquals(0, contexto.getBeanNamesForType(EntityManagerFactory.class).length);
+        assertEquals(0, contexto.getBeanNamesForType(EntityManager.class).length);
+    }
+
+    @Test
+    void testServicos_emprestimoLoteEExportacao() {
+        Usuario usuario = usuarioService.criar(new Usuario("Carla", "carla.memoria@email.com"));
+        Livro livro = livroService.criar(new Livro("Livro Memoria", "Autor Memoria", 80));
+
+        Emprestimo emprestimo = emprestimoService.criar(new Emprestimo(usuario, livro, LocalDate.now(), null));
+        assertNotNull(emprestimo.getId());
+        assertEquals("Livro Memoria", livroService.buscarPorId(livro.getId()).getTitulo());
+
+        ResultadoLote lote = livroLoteService.criarEmLote(List.of(
+                new Livro("Lote A", "Autor Memoria", 10), new Livro("Lote B", "Autor Memoria", 20)));
+        assertEquals(2, lote.inseridos());
+        assertEquals(List.of("Livro Memoria", "Lote A", "Lote B"),
+                livroService.buscarPorAutorOrdenado("Autor Memoria", true).stream().map(Livro::getTitulo).toList());
+
+        AtomicLong exportados = new AtomicLong();
+        assertEquals(livroService.buscarTodos().size(), livroService.exportarTodos(l -> exportados.incrementAndGet()));
+        assertEquals(livroService.buscarTodos().size(), exportados.get());
+    }
+}
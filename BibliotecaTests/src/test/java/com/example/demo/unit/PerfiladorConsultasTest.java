@@ -0,0 +1,164 @@
+package com.example.demo.unit;
+
+import com.example.demo.consultas.HistogramaLatencia;
+import com.example.demo.consultas.ImpressaoDigitalSql;
+import com.example.demo.consultas.JdbcPerfilado;
+import com.example.demo.consultas.PerfiladorConsultas;
+import com.example.demo.consultas.ResumoConsulta;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerfiladorConsultasTest {
+
+    // ---------- Impressão digital ----------
+    @Test
+    void testImpressaoDigital_normalizaLiteraisEEspacos() {
+        String a = ImpressaoDigitalSql.de("SELECT * FROM livros  WHERE autor = 'Machado' AND paginas > 100");
+        String b = ImpressaoDigitalSql.de("select *\n from livros where autor='O''Brien' and paginas > 7");
+
+        assertEquals("select * from livros where autor = ? and paginas > ?", a);
+        assertEquals("select * from livros where autor=? and paginas > ?", b);
+    }
+
+    @Test
+    void testImpressaoDigital_preservaAliasesEColapsaListas() {
+        String sql = "select l1_0.id from livros l1_0 where l1_0.id in (?,?,?) /* comentario */ fetch first 20 rows only";
+
+        assertEquals("select l1_0.id from livros l1_0 where l1_0.id in (?+) fetch first ? rows only",
+                ImpressaoDigitalSql.de(sql));
+        assertEquals(ImpressaoDigitalSql.de("select 1 from t where id in (1, 2)"),
+                ImpressaoDigitalSql.de("select 1 from t where id in (3,4,5,6)"));
+    }
+
+    // ---------- Histograma ----------
+    @Test
+    void testHistograma_percentisComErroLimitado() {
+        HistogramaLatencia h = new HistogramaLatencia();
+        for (int i = 1; i <= 1000; i++) {
+            h.registrar(i * 1_000_000L); // 1..1000 ms
+        }
+
+        assertEquals(1000, h.quantidade());
+        assertEquals(1_000_000, h.maximoMicros());
+        assertEquals(500_000, h.percentilMicros(50), 500_000 * 0.125);
+        assertEquals(990_000, h.percentilMicros(99), 990_000 * 0.125);
+        assertTrue(h.percentilMicros(99) >= h.percentilMicros(95));
+    }
+
+    @Test
+    void testHistograma_precisaoConfiguravel() {
+        HistogramaLatencia h = new HistogramaLatencia(7);
+        for (int i = 1; i <= 1000; i++) {
+            h.registrar(i * 1_000_000L);
+        }
+
+        assertEquals(500_000, h.percentilMicros(50), 500_000 / 128.0);
+        assertEquals(990_000, h.percentilMicros(99), 990_000 / 128.0);
+        assertThrows(IllegalArgumentException.class, () -> new HistogramaLatencia(0));
+    }
+
+    @Test
+    void testHistograma_corrigeOmissaoCoordenada() {
+        HistogramaLatencia bruto = new HistogramaLatencia(7);
+        HistogramaLatencia corrigido = new HistogramaLatencia(7);
+        for (int i = 0; i < 99; i++) {
+            bruto.registrar(1_000_000L);
+            corrigido.registrar(1_000_000L, 10_000_000L); // 1 ms, abaixo do intervalo: sem correção
+        }
+        // uma pausa de 1 s com pedidos esperados a cada 10 ms: os 99 que não saíram entram de 990 ms a 10 ms
+        bruto.registrar(1_000_000_000L);
+        corrigido.registrar(1_000_000_000L, 10_000_000L);
+
+        assertEquals(100, bruto.quantidade());
+        assertEquals(1_000, bruto.percentilMicros(75), 1_000 / 128.0);
+        assertEquals(199, corrigido.quantidade());
+        assertEquals(1_000_000, corrigido.maximoMicros());
+        assertEquals(510_000, corrigido.percentilMicros(75), 510_000 / 128.0);
+    }
+
+    // ---------- Agregação ----------
+    @Test
+    void testRegistrar_agrupaPorImpressaoComOrigem() {
+        PerfiladorConsultas perfilador = new PerfiladorConsultas(Duration.ofSeconds(1), 100);
+
+        perfilador.registrar("select * from emprestimos where usuario_id = 1", 2_000_000, 3,
+                "EmprestimoRepository.findByUsuario");
+        perfilador.registrar("select * from emprestimos where usuario_id = 2", 4_000_000, 1,
+                "EmprestimoRepository.findByUsuario");
+        perfilador.registrar("delete from livros where id = 9", 1_000_000, 1, null);
+
+        List<ResumoConsulta> resumo = perfilador.resumo();
+        assertEquals(2, resumo.size());
+        ResumoConsulta emprestimos = resumo.get(0);
+        assertEquals("select * from emprestimos where usuario_id = ?", emprestimos.sql());
+        assertEquals(2, emprestimos.execucoes());
+        assertEquals(4, emprestimos.linhas());
+        assertEquals(6.0, emprestimos.tempoTotalMs(), 1e-9);
+        assertEquals(Set.of("EmprestimoRepository.findByUsuario"), emprestimos.origens());
+
+        perfilador.limpar();
+        assertTrue(perfilador.resumo().isEmpty());
+    }
+
+    @Test
+    void testRegistrar_limiteDeImpressoes() {
+        PerfiladorConsultas perfilador = new PerfiladorConsultas(Duration.ofSeconds(1), 1);
+
+        perfilador.registrar("select a from t", 1_000, 0, null);
+        perfilador.registrar("select b from t", 1_000, 0, null);
+
+        assertEquals(List.of("(outras)", "select a from t"),
+                perfilador.resumo().stream().map(ResumoConsulta::sql).sorted().toList());
+    }
+
+    // ---------- Proxy JDBC ----------
+    @Test
+    void testJdbcPerfilado_registraConsultasEAtualizacoes() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:perfilador;DB_CLOSE_DELAY=-1");
+        PerfiladorConsultas perfilador = new PerfiladorConsultas(Duration.ofSeconds(1), 100);
+        DataSource dataSource = JdbcPerfilado.envolver(h2, perfilador);
+
+        try (Connection c = dataSource.getConnection(); Statement st = c.createStatement()) {
+            st.executeUpdate("create table livros (id int primary key, titulo varchar(50))");
+            try (PreparedStatement ps = c.prepareStatement("insert into livros values (?, ?)")) {
+                for (int i = 1; i <= 3; i++) {
+                    ps.setInt(1, i);
+                    ps.setString(2, "Livro " + i);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = c.prepareStatement("select titulo from livros where id > ?")) {
+                ps.setInt(1, 1);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        assertNotNull(rs.getString(1));
+                    }
+                }
+            }
+        }
+
+        ResumoConsulta insercao = buscar(perfilador, "insert into livros values (?, ?)");
+        assertEquals(1, insercao.execucoes());
+        assertEquals(3, insercao.linhas());
+        ResumoConsulta consulta = buscar(perfilador, "select titulo from livros where id > ?");
+        assertEquals(1, consulta.execucoes());
+        assertEquals(2, consulta.linhas());
+    }
+
+    private static ResumoConsulta buscar(PerfiladorConsultas perfilador, String sql) {
+        return perfilador.resumo().stream().filter(r -> r.sql().equals(sql)).findFirst().orElseThrow();
+    }
+}
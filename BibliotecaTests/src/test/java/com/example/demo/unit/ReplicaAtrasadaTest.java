@@ -0,0 +1,114 @@
+package com.example.demo.unit;
+
+import com.example.demo.models.Emprestimo;
+import com.example.demo.models.Livro;
+import com.example.demo.models.Usuario;
+import com.example.demo.roteamento.ContextoRoteamento;
+import com.example.demo.services.EmprestimoPipeline;
+import com.example.demo.services.LivroService;
+import com.example.demo.services.UsuarioService;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Aplicação com primário e réplica em dois H2; a réplica não recebe nada do primário, como uma
+ * réplica atrasada. O que vem do banco passa pelos serviços, pelo aspecto de roteamento e pelo
+ * gerenciador de transações da aplicação.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaAtrasadaTest.URL_PRIMARIO,
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "biblioteca.datasource.replica.url=" + ReplicaAtrasadaTest.URL_REPLICA,
+        "biblioteca.datasource.replica.username=sa",
+        "biblioteca.datasource.replica.password=",
+        "spring.jpa.open-in-view=false",
+        "biblioteca.emprestimos.agrupamento.habilitado=true"})
+class ReplicaAtrasadaTest {
+
+    static final String URL_PRIMARIO = "jdbc:h2:mem:replica-atrasada-primario;DB_CLOSE_DELAY=-1";
+    static final String URL_REPLICA = "jdbc:h2:mem:replica-atrasada-replica;DB_CLOSE_DELAY=-1";
+
+    private static final JdbcDataSource REPLICA = new JdbcDataSource();
+
+    // o Flyway da aplicação migra só o primário
+    static {
+        REPLICA.setURL(URL_REPLICA);
+        REPLICA.setUser("sa");
+        Flyway.configure()
+                .dataSource(REPLICA)
+                .locations("classpath:db/migration/comum", "classpath:db/migration/h2")
+                .load()
+                .migrate();
+    }
+
+    @Autowired
+    private LivroService livroService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private EmprestimoPipeline emprestimoPipeline;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        ContextoRoteamento.limpar();
+    }
+
+    // nova requisição com os caches expirados
+    private void novaRequisicaoSemCache() {
+        ContextoRoteamento.limpar();
+        livroService.getCache().limpar();
+        usuarioService.getCache().limpar();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void testBuscarPorId_aposEscritaNaoServeLinhaVelhaDaReplica() {
+        Livro livro = livroService.criar(new Livro("Titulo antigo", "Autor Replica", 100));
+        new JdbcTemplate(REPLICA).update(
+                "insert into livros (id, titulo, autor, paginas, versao, atualizado_em) values (?, ?, ?, ?, ?, ?)",
+                livro.getId(), livro.getTitulo(), livro.getAutor(), livro.getPaginas(), livro.getVersao(),
+                livro.getAtualizadoEm());
+        Livro atualizado = livroService.atualizar(livro.getId(), new Livro("Titulo novo", "Autor Replica", 100));
+        novaRequisicaoSemCache();
+
+        // listagens continuam na réplica, que ainda tem o título antigo
+        assertTrue(livroService.buscarTodos().stream()
+                .anyMatch(l -> l.getId().equals(livro.getId()) && l.getTitulo().equals("Titulo antigo")));
+
+        // buscarPorId enche o cache: vai ao primário, e a listagem acima não deixou a linha velha no L2
+        assertEquals("Titulo novo", livroService.buscarPorId(livro.getId()).getTitulo());
+        assertEquals(atualizado.getVersao(), livroService.buscarVersao(livro.getId()));
+        assertEquals("Titulo novo", livroService.buscarPorId(livro.getId()).getTitulo());
+    }
+
+    @Test
+    void testEnviarAoPipeline_usuarioELivroRecemCriadosSaoEncontrados() throws Exception {
+        Usuario usuario = usuarioService.criar(new Usuario("Leitora", "leitora.replica@email.com"));
+        Livro livro = livroService.criar(new Livro("Livro Novo", "Autor Pipeline", 120));
+        novaRequisicaoSemCache();
+
+        Emprestimo emprestimo = emprestimoPipeline.enviar(new Emprestimo(usuario, livro, LocalDate.now(), null))
+                .get(10, TimeUnit.SECONDS);
+
+        assertNotNull(emprestimo.getId());
+        assertEquals(usuario.getId(), emprestimo.getUsuario().getId());
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.demo.unit;
+
+import com.example.demo.dto.EmprestimoResumo;
+import com.example.demo.dto.VersaoCatalogo;
+import com.example.demo.models.Emprestimo;
+import com.example.demo.models.Livro;
+import com.example.demo.models.Usuario;
+import com.example.demo.repositories.memoria.EmprestimoRepositoryMemoria;
+import com.example.demo.repositories.memoria.LivroRepositoryMemoria;
+import com.example.demo.repositories.memoria.UsuarioRepositoryMemoria;
+import com.example.demo.services.EmprestimoService;
+import com.example.demo.services.LivroService;
+import com.example.demo.services.Pagina;
+import com.example.demo.services.UsuarioService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// serviços reais sobre os repositórios do perfil memoria, sem mocks
+class RepositoriosMemoriaTest {
+
+    private LivroRepositoryMemoria livroRepository;
+    private UsuarioRepositoryMemoria usuarioRepository;
+    private EmprestimoRepositoryMemoria emprestimoRepository;
+    private LivroService livroService;
+    private UsuarioService usuarioService;
+    private EmprestimoService emprestimoService;
+
+    @BeforeEach
+    void setUp() {
+        livroRepository = new LivroRepositoryMemoria();
+        usuarioRepository = new UsuarioRepositoryMemoria();
+        emprestimoRepository = new EmprestimoRepositoryMemoria(usuarioRepository, livroRepository);
+        livroService = new LivroService(livroRepository);
+        usuarioService = new UsuarioService(usuarioRepository);
+        emprestimoService = new EmprestimoService(emprestimoRepository, usuarioRepository, livroRepository);
+    }
+
+    // ---------- Livros ----------
+    @Test
+    void testSalvar_atribuiIdEVersaoComoJpa() {
+        Livro livro = livroService.criar(new Livro("Dom Casmurro", "Machado", 200));
+
+        assertNotNull(livro.getId());
+        assertEquals(0L, livro.getVersao());
+        assertNotNull(livro.getAtualizadoEm());
+
+        livroService.atualizar(livro.getId(), new Livro("Dom Casmurro", "Machado", 210));
+        assertEquals(1L, livroRepository.buscarVersao(livro.getId()).orElseThrow());
+    }
+
+    @Test
+    void testSalvar_versaoDesatualizada_lancaConflitoOtimista() {
+        Livro livro = livroRepository.save(new Livro("Iracema", "Alencar", 150));
+        Livro copiaAntiga = livroRepository.findById(livro.getId()).orElseThrow();
+        livroRepository.save(livroRepository.findById(livro.getId()).orElseThrow());
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> livroRepository.save(copiaAntiga));
+    }
+
+    @Test
+    void testLeitura_devolveCopia() {
+        Livro livro = livroRepository.save(new Livro("Iracema", "Alencar", 150));
+
+        livroRepository.findById(livro.getId()).orElseThrow().setTitulo("Alterado sem save");
+
+        assertEquals("Iracema", livroRepository.findById(livro.getId()).orElseThrow().getTitulo());
+    }
+
+    @Test
+    void testIndiceAutor_ordenaPorTituloESegueAtualizacoes() {
+        livroRepository.save(new Livro("Casa", "Autor", 10));
+        Livro banana = livroRepository.save(new Livro("Banana", "Autor", 10));
+        livroRepository.save(new Livro("Abacate", "Autor", 10));
+        livroRepository.save(new Livro("Zebra", "Outro", 10));
+
+        assertEquals(List.of("Abacate", "Banana", "Casa"), titulos(livroRepository.findByAutorOrderByTituloAsc("Autor")));
+        assertEquals(List.of("Casa", "Banana", "Abacate"), titulos(livroRepository.findByAutorOrderByTituloDesc("Autor")));
+
+        banana.setAutor("Outro");
+        livroRepository.save(banana);
+        assertEquals(List.of("Abacate", "Casa"), titulos(livroRepository.findByAutorOrderByTituloAsc("Autor")));
+        assertEquals(List.of("Banana", "Zebra"), titulos(livroRepository.findByAutorOrderByTituloAsc("Outro")));
+    }
+
+    @Test
+    void testPaginacaoPorTitulo_eVersaoCatalogo() {
+        for (String titulo : List.of("C", "A", "B", "A")) {
+            livroService.criar(new Livro(titulo, "Autor", 10));
+        }
+
+        Pagina<Livro> primeira = livroService.buscarPaginaPorTitulo(null, 3);
+        assertEquals(List.of("A", "A", "B"), titulos(primeira.itens()));
+        Pagina<Livro> segunda = livroService.buscarPaginaPorTitulo(primeira.proximoCursor(), 3);
+        assertEquals(List.of("C"), titulos(segunda.itens()));
+        assertNull(segunda.proximoCursor());
+
+        VersaoCatalogo antes = livroRepository.buscarVersaoCatalogo();
+        assertEquals(new VersaoCatalogo(4L), antes);
+        livroService.deletar(4L);
+        livroService.atualizar(1L, new Livro("D", "Autor", 10));
+        assertEquals(new VersaoCatalogo(6L), livroRepository.buscarVersaoCatalogo());
+    }
+
+    // ---------- Usuários ----------
+    @Test
+    void testEmailDuplicado_mesmaMensagemQueNoBanco() {
+        usuarioService.criar(new Usuario("Ana", "ana@email.com"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> usuarioService.criar(new Usuario("Outra Ana", " ANA@email.com ")));
+        assertEquals("Email já cadastrado.", e.getMessage());
+        assertEquals(1, usuarioRepository.count());
+    }
+
+    @Test
+    void testBuscasPorEmailENome() {
+        Usuario ana = usuarioRepository.save(new Usuario("Ana Maria", "Ana@Email.com"));
+
+        assertEquals(ana.getId(), usuarioRepository.findByEmail("Ana@Email.com").orElseThrow().getId());
+        assertEquals(ana.getId(), usuarioRepository.findByEmailNormalizado("ana@email.com").orElseThrow().getId());
+        assertEquals(1, usuarioRepository.findByNomeContainingIgnoreCase("maria").size());
+
+        ana.setEmail("nova@email.com");
+        usuarioRepository.save(ana);
+        assertTrue(usuarioRepository.findByEmail("Ana@Email.com").isEmpty());
+        assertTrue(usuarioRepository.findByEmail("nova@email.com").isPresent());
+    }
+
+    // ---------- Empréstimos ----------
+    @Test
+    void testLimiteDeEmprestimos_eDevolucaoLiberaVaga() {
+        Usuario usuario = usuarioRepository.save(new Usuario("João", "joao@email.com"));
+        Livro livro = livroRepository.save(new Livro("Livro", "Autor", 100));
+        LocalDate hoje = LocalDate.now();
+
+        Emprestimo primeiro = null;
+        for (int i = 0; i < EmprestimoService.LIMITE_EMPRESTIMOS_ABERTOS; i++) {
+            Emprestimo criado = emprestimoService.criar(new Emprestimo(usuario, livro, hoje, null));
+            if (primeiro == null) primeiro = criado;
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> emprestimoService.criar(new Emprestimo(usuario, livro, hoje, null)));
+
+        emprestimoService.atualizar(primeiro.getId(), new Emprestimo(null, null, null, hoje));
+        assertEquals(4, emprestimoRepository.countByUsuarioAndDataDevolucaoIsNull(usuario));
+        assertNotNull(emprestimoService.criar(new Emprestimo(usuario, livro, hoje, null)));
+    }
+
+    @Test
+    void testHistoricoUsuario_maisRecentesPrimeiroComCursor() {
+        Usuario usuario = usuarioRepository.save(new Usuario("João", "joao@email.com"));
+        Livro livro = livroRepository.save(new Livro("Livro", "Autor", 100));
+        LocalDate base = LocalDate.of(2024, 5, 1);
+        for (int i = 0; i < 3; i++) {
+            emprestimoRepository.save(new Emprestimo(usuario, livro, base.plusDays(i), base.plusDays(i + 1)));
+        }
+
+        Pagina<EmprestimoResumo> primeira = emprestimoService.buscarHistoricoUsuario(usuario.getId(), null, 2);
+        assertEquals(List.of(base.plusDays(2), base.plusDays(1)),
+                primeira.itens().stream().map(EmprestimoResumo::dataEmprestimo).toList());
+        Pagina<EmprestimoResumo> segunda =
+                emprestimoService.buscarHistoricoUsuario(usuario.getId(), primeira.proximoCursor(), 2);
+        assertEquals(List.of(base), segunda.itens().stream().map(EmprestimoResumo::dataEmprestimo).toList());
+
+        // o resumo traz o título atual do livro
+        livro.setTitulo("Novo Título");
+        livroRepository.save(livro);
+        assertEquals("Novo Título", emprestimoRepository.buscarHistoricoUsuario(usuario.getId(), Limit.of(1))
+                .get(0).livroTitulo());
+    }
+
+    private static List<String> titulos(List<Livro> livros) {
+        return livros.stream().map(Livro::getTitulo).toList();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.demo.unit;
+
+import com.example.demo.roteamento.ContextoRoteamento;
+import com.example.demo.roteamento.RoteamentoDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Roteamento primário/réplica com dois H2 em memória; cada banco responde o próprio nome.
+ */
+class RoteamentoDataSourceTest {
+
+    private EmbeddedDatabase primario;
+    private EmbeddedDatabase replica;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate leitura;
+    private TransactionTemplate escrita;
+
+    private static EmbeddedDatabase banco(String nome) {
+        EmbeddedDatabase db = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(nome + System.nanoTime())
+                .build();
+        new JdbcTemplate(db).execute("create table origem (nome varchar(20))");
+        new JdbcTemplate(db).update("insert into origem values (?)", nome);
+        return db;
+    }
+
+    @BeforeEach
+    void setUp() {
+        primario = banco("primario");
+        replica = banco("replica");
+        DataSource roteado = new LazyConnectionDataSourceProxy(new RoteamentoDataSource(primario, replica));
+        jdbc = new JdbcTemplate(roteado);
+        DataSourceTransactionManager tm = new DataSourceTransactionManager(roteado);
+        leitura = new TransactionTemplate(tm);
+        leitura.setReadOnly(true);
+        escrita = new TransactionTemplate(tm);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ContextoRoteamento.limpar();
+        primario.shutdown();
+        replica.shutdown();
+    }
+
+    private String origem(TransactionTemplate tx) {
+        return tx.execute(s -> jdbc.queryForObject("select nome from origem", String.class));
+    }
+
+    private int quantidade(TransactionTemplate tx) {
+        return tx.execute(s -> jdbc.queryForObject("select count(*) from origem", Integer.class));
+    }
+
+    @Test
+    void testLeituraSomenteLeitura_vaiParaReplica() {
+        assertEquals("replica", origem(leitura));
+    }
+
+    @Test
+    void testTransacaoDeEscrita_vaiParaPrimario() {
+        assertEquals("primario", origem(escrita));
+    }
+
+    @Test
+    void testSemTransacao_vaiParaPrimario() {
+        assertEquals("primario", jdbc.queryForObject("select nome from origem", String.class));
+    }
+
+    @Test
+    void testLeituraDentroDeEscrita_vaiParaPrimario() {
+        ContextoRoteamento.iniciarEscrita();
+        try {
+            assertEquals("primario", origem(leitura));
+        } finally {
+            ContextoRoteamento.terminarEscrita(false);
+        }
+        assertEquals("replica", origem(leitura));
+    }
+
+    @Test
+    void testLerPropriasEscritas_leiturasSeguintesNoPrimarioAteLimpar() {
+        ContextoRoteamento.iniciarEscrita();
+        escrita.executeWithoutResult(s -> jdbc.update("insert into origem values ('nova')"));
+        ContextoRoteamento.terminarEscrita(true);
+
+        // a réplica (sem replicação aqui) não tem a linha nova; o primário tem
+        assertEquals(2, quantidade(leitura));
+
+        ContextoRoteamento.limpar();
+        assertEquals(1, quantidade(leitura));
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.demo.unit;
+
+import com.example.demo.cache.CacheEntidade;
+import com.example.demo.models.Livro;
+import com.example.demo.models.Usuario;
+import com.example.demo.repositories.memoria.LivroRepositoryMemoria;
+import com.example.demo.repositories.memoria.UsuarioRepositoryMemoria;
+import com.example.demo.snapshot.AquecimentoCatalogo;
+import com.example.demo.snapshot.SnapshotCatalogo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotCatalogoTest {
+
+    @TempDir
+    Path diretorio;
+
+    // ---------- Formato ----------
+    @Test
+    void testGravarELer_idaEVolta() throws IOException {
+        Path arquivo = diretorio.resolve("catalogo.snap");
+        Livro livro = new Livro("Memórias Póstumas", "Machado", 300);
+        livro.setId(7L);
+        livro.setVersao(2L);
+        livro.setAtualizadoEm(Instant.parse("2024-05-10T12:00:00.123456Z"));
+        Usuario usuario = new Usuario("Ana", "Ana@Email.com");
+        usuario.setId(3L);
+        usuario.setVersao(0L);
+
+        try (SnapshotCatalogo.Escritor escritor = SnapshotCatalogo.escritor(arquivo, Instant.ofEpochMilli(1000))) {
+            escritor.livro(livro);
+            escritor.usuario(usuario);
+            escritor.concluir();
+        }
+        SnapshotCatalogo.Conteudo lido = SnapshotCatalogo.ler(arquivo, 10, 10);
+
+        assertEquals(Instant.ofEpochMilli(1000), lido.geradoEm());
+        Livro l = lido.livros().get(0);
+        assertEquals(7L, l.getId());
+        assertEquals("Memórias Póstumas", l.getTitulo());
+        assertEquals(2L, l.getVersao());
+        assertEquals(livro.getAtualizadoEm(), l.getAtualizadoEm());
+        Usuario u = lido.usuarios().get(0);
+        assertEquals("Ana@Email.com", u.getEmail());
+        assertNull(u.getAtualizadoEm());
+    }
+
+    @Test
+    void testLer_respeitaLimite() throws IOException {
+        Path arquivo = diretorio.resolve("catalogo.snap");
+        try (SnapshotCatalogo.Escritor escritor = SnapshotCatalogo.escritor(arquivo, Instant.now())) {
+            for (long id = 1; id <= 5; id++) {
+                Livro livro = new Livro("T" + id, "A", 10);
+                livro.setId(id);
+                escritor.livro(livro);
+            }
+            Usuario usuario = new Usuario("U", "u@email.com");
+            usuario.setId(1L);
+            escritor.usuario(usuario);
+            escritor.concluir();
+        }
+
+        SnapshotCatalogo.Conteudo lido = SnapshotCatalogo.ler(arquivo, 2, 10);
+        assertEquals(2, lido.livros().size());
+        assertEquals(1, lido.usuarios().size());
+    }
+
+    @Test
+    void testLer_arquivoCorrompido_lancaIOException() throws IOException {
+        Path arquivo = diretorio.resolve("catalogo.snap");
+        try (SnapshotCatalogo.Escritor escritor = SnapshotCatalogo.escritor(arquivo, Instant.now())) {
+            Livro livro = new Livro("Titulo", "Autor", 10);
+            livro.setId(1L);
+            escritor.livro(livro);
+            escritor.concluir();
+        }
+        byte[] bytes = Files.readAllBytes(arquivo);
+        bytes[bytes.length - 1] ^= 0x7f;
+        Files.write(arquivo, bytes);
+
+        assertThrows(IOException.class, () -> SnapshotCatalogo.ler(arquivo, 10, 10));
+    }
+
+    @Test
+    void testEscritorSemConcluir_naoPublicaArquivo() throws IOException {
+        Path arquivo = diretorio.resolve("catalogo.snap");
+        try (SnapshotCatalogo.Escritor escritor = SnapshotCatalogo.escritor(arquivo, Instant.now())) {
+            Livro livro = new Livro("Titulo", "Autor", 10);
+            livro.setId(1L);
+            escritor.livro(livro);
+        }
+
+        assertFalse(Files.exists(arquivo));
+        try (var arquivos = Files.list(diretorio)) {
+            assertEquals(0, arquivos.count());
+        }
+    }
+
+    // ---------- Aquecimento ----------
+    @Test
+    void testAquecimento_aplicaAlteracoesFeitasDepoisDoSnapshot() throws IOException {
+        Path arquivo = diretorio.resolve("catalogo.snap");
+        LivroRepositoryMemoria livros = new LivroRepositoryMemoria();
+        UsuarioRepositoryMemoria usuarios = new UsuarioRepositoryMemoria();
+        Livro alterado = livros.save(new Livro("Antigo", "Autor", 10));
+        Livro removido = livros.save(new Livro("Removido", "Autor", 10));
+        livros.save(new Livro("Igual", "Autor", 10));
+        usuarios.save(new Usuario("Ana", "ana@email.com"));
+        novoAquecimento(livros, usuarios, arquivo, caches()).gravar();
+
+        alterado.setTitulo("Novo");
+        livros.save(alterado);
+        livros.deleteById(removido.getId());
+        Livro novo = livros.save(new Livro("Depois do snapshot", "Autor", 10));
+
+        Caches caches = caches();
+        novoAquecimento(livros, usuarios, arquivo, caches).carregar();
+
+        assertEquals("Novo", caches.livros.consultar(alterado.getId()).orElseThrow().getTitulo());
+        assertTrue(caches.livros.consultar(removido.getId()).isEmpty());
+        assertTrue(caches.livros.consultar(novo.getId()).isPresent());
+        assertEquals(3, caches.livros.tamanho());
+        assertEquals(1L, caches.email.consultar("ana@email.com").orElseThrow());
+    }
+
+    @Test
+    void testAquecimento_semArquivo_sobeFrio() {
+        Caches caches = caches();
+        novoAquecimento(new LivroRepositoryMemoria(), new UsuarioRepositoryMemoria(),
+                diretorio.resolve("inexistente.snap"), caches).carregar();
+
+        assertEquals(0, caches.livros.tamanho());
+    }
+
+    @Test
+    void testAquecimento_habilitadoSemArquivo_falhaNaSubida() {
+        Caches caches = caches();
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> new AquecimentoCatalogo(
+                new LivroRepositoryMemoria(), new UsuarioRepositoryMemoria(), caches.livros(), caches.usuarios(),
+                caches.email(), null, Duration.ZERO, false));
+        assertTrue(e.getMessage().contains("biblioteca.snapshot.arquivo"));
+    }
+
+    private record Caches(CacheEntidade<Long, Livro> livros, CacheEntidade<Long, Usuario> usuarios,
+                          CacheEntidade<String, Long> email) {
+    }
+
+    private static Caches caches() {
+        return new Caches(new CacheEntidade<>("livros", 100, Duration.ofMinutes(1)),
+                new CacheEntidade<>("usuarios", 100, Duration.ofMinutes(1)),
+                new CacheEntidade<>("usuarios-email", 100, Duration.ofMinutes(1)));
+    }
+
+    private static AquecimentoCatalogo novoAquecimento(LivroRepositoryMemoria livros, UsuarioRepositoryMemoria usuarios,
+                                                       Path arquivo, Caches caches) {
+        return new AquecimentoCatalogo(livros, usuarios, caches.livros(), caches.usuarios(), caches.email(),
+                arquivo, Duration.ZERO, false);
+    }
+}
@@ -1,9 +1,11 @@
 package com.example.demo.unit;
 
+import com.example.demo.cache.CacheEntidade;
 import com.example.demo.models.Usuario;
 import com.example.demo.repositories.UsuarioRepository;
 import com.example.demo.services.ResourceNotFoundException;
 import com.example.demo.services.UsuarioService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -11,7 +13,10 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Stream;
 
@@ -57,7 +62,6 @@ class UsuarioServiceTest {
     // ---------- Testes de criação ----------
     @Test
     void testCriarUsuario_valido() {
-        when(usuarioRepository.findByEmail(anyString())).thenReturn(Optional.empty());
         when(usuarioRepository.save(any())).thenReturn(sampleUsuario);
 
         Usuario criado = usuarioService.criar(sampleUsuario);
@@ -76,10 +80,27 @@ class UsuarioServiceTest {
 
     @Test
     void testCriarUsuario_emailDuplicado() {
-        when(usuarioRepository.findByEmail(anyString())).thenReturn(Optional.of(sampleUsuario));
+        when(usuarioRepository.save(any())).thenThrow(violacaoEmailUnico());
 
         Usuario novo = new Usuario("João 2", "joao@email.com");
-        assertThrows(IllegalArgumentException.class, () -> usuarioService.criar(novo));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> usuarioService.criar(novo));
+        assertEquals("Email já cadastrado.", e.getMessage());
+        // a duplicidade fica a cargo da constraint: nenhum SELECT prévio
+        verify(usuarioRepository, never()).findByEmail(anyString());
+    }
+
+    @Test
+    void testCriarUsuario_outraViolacao_propaga() {
+        DataIntegrityViolationException outra = new DataIntegrityViolationException("outra",
+                new ConstraintViolationException("outra", new SQLException("outra"), "usuarios_pkey"));
+        when(usuarioRepository.save(any())).thenThrow(outra);
+
+        assertThrows(DataIntegrityViolationException.class, () -> usuarioService.criar(new Usuario("Ana", "ana@email.com")));
+    }
+
+    static DataIntegrityViolationException violacaoEmailUnico() {
+        return new DataIntegrityViolationException("duplicado",
+                new ConstraintViolationException("duplicado", new SQLException("duplicado"), Usuario.UK_EMAIL));
     }
 
     @Test
@@ -129,7 +150,6 @@ class UsuarioServiceTest {
     @Test
     void testAtualizar_emailValido() {
         when(usuarioRepository.findById(1L)).thenReturn(Optional.of(sampleUsuario));
-        when(usuarioRepository.findByEmail(anyString())).thenReturn(Optional.empty());
         when(usuarioRepository.save(any())).thenReturn(sampleUsuario);
 
         Usuario dados = new Usuario(null, "novo@email.com");
@@ -140,9 +160,8 @@ class UsuarioServiceTest {
 
     @Test
     void testAtualizar_emailDuplicado() {
-        Usuario outro = new Usuario("Outro", "outro@email.com");
         when(usuarioRepository.findById(1L)).thenReturn(Optional.of(sampleUsuario));
-        when(usuarioRepository.findByEmail("outro@email.com")).thenReturn(Optional.of(outro));
+        when(usuarioRepository.save(any())).thenThrow(violacaoEmailUnico());
 
         Usuario dados = new Usuario(null, "outro@email.com");
         assertThrows(IllegalArgumentException.class, () -> usuarioService.atualizar(1L, dados));
@@ -188,15 +207,67 @@ class UsuarioServiceTest {
     // ---------- Testes buscarPorEmail ----------
     @Test
     void testBuscarPorEmail_existente() {
-        when(usuarioRepository.findByEmail("joao@email.com")).thenReturn(Optional.of(sampleUsuario));
+        when(usuarioRepository.findByEmailNormalizado("joao@email.com")).thenReturn(Optional.of(sampleUsuario));
         Optional<Usuario> u = usuarioService.buscarPorEmail("joao@email.com");
         assertTrue(u.isPresent());
         assertEquals("João", u.get().getNome());
     }
 
+    @Test
+    void testBuscarPorEmail_comCache_segundaBuscaNaoVaiAoBanco() {
+        usuarioService.setCache(new CacheEntidade<>("usuarios", 10, Duration.ofMinutes(1)));
+        usuarioService.setCacheEmail(new CacheEntidade<>("usuarios-email", 10, Duration.ofMinutes(1)));
+        when(usuarioRepository.findByEmailNormalizado("joao@email.com")).thenReturn(Optional.of(sampleUsuario));
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(sampleUsuario));
+
+        usuarioService.buscarPorEmail("joao@email.com");
+        usuarioService.buscarPorEmail("joao@email.com");
+        usuarioService.buscarPorEmail("joao@email.com");
+
+        verify(usuarioRepository, times(1)).findByEmailNormalizado("joao@email.com");
+        verify(usuarioRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testAtualizar_comCache_invalidaEmailAntigo() {
+        CacheEntidade<String, Long> cacheEmail = new CacheEntidade<>("usuarios-email", 10, Duration.ofMinutes(1));
+        usuarioService.setCacheEmail(cacheEmail);
+        cacheEmail.guardar("joao@email.com", 1L);
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(sampleUsuario));
+        when(usuarioRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        usuarioService.atualizar(1L, new Usuario(null, "novo@email.com"));
+
+        assertTrue(cacheEmail.consultar("joao@email.com").isEmpty());
+    }
+
+    @Test
+    void testBuscarPorEmail_ignoraMaiusculasEEspacos() {
+        when(usuarioRepository.findByEmailNormalizado("joao@email.com")).thenReturn(Optional.of(sampleUsuario));
+
+        Optional<Usuario> u = usuarioService.buscarPorEmail("  Joao@Email.COM ");
+        assertTrue(u.isPresent());
+    }
+
+    @Test
+    void testAtualizar_mesmoEmailOutraCaixa_naoTrocaEmail() {
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(sampleUsuario));
+        when(usuarioRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        Usuario atualizado = usuarioService.atualizar(1L, new Usuario(null, "JOAO@email.com"));
+
+        assertEquals("joao@email.com", atualizado.getEmail());
+    }
+
+    @Test
+    void testNormalizarEmail() {
+        assertEquals("ana@email.com", Usuario.normalizarEmail(" Ana@Email.com "));
+        assertNull(Usuario.normalizarEmail(null));
+    }
+
     @Test
     void testBuscarPorEmail_naoExistente() {
-        when(usuarioRepository.findByEmail("naoexiste@email.com")).thenReturn(Optional.empty());
+        when(usuarioRepository.findByEmailNormalizado("naoexiste@email.com")).thenReturn(Optional.empty());
         Optional<Usuario> u = usuarioService.buscarPorEmail("naoexiste@email.com");
         assertFalse(u.isPresent());
     }